@@ -0,0 +1,37 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import com.blueocn.SpringSecurityJWT.service.audit.AuditWriter;
+import com.blueocn.SpringSecurityJWT.service.audit.FileAuditWriter;
+import com.blueocn.SpringSecurityJWT.service.audit.JdbcAuditWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Chooses where audit events end up: the {@code audit_events} table (default) or a
+ * rotating JSON-lines file, selected with {@code audit.sink=jdbc|file}.
+ */
+@Configuration
+public class AuditConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "audit.sink", havingValue = "jdbc", matchIfMissing = true)
+    public AuditWriter jdbcAuditWriter(JdbcTemplate jdbcTemplate) {
+        return new JdbcAuditWriter(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "audit.sink", havingValue = "file")
+    public AuditWriter fileAuditWriter(ObjectMapper objectMapper,
+                                       @Value("${audit.file.path:logs/audit.log}") String path,
+                                       @Value("${audit.file.max-size:10MB}") DataSize maxSize,
+                                       @Value("${audit.file.max-files:5}") int maxFiles) {
+        return new FileAuditWriter(objectMapper, Path.of(path), maxSize.toBytes(), maxFiles);
+    }
+}
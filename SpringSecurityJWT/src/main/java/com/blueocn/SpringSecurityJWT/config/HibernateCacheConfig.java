@@ -0,0 +1,75 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import com.blueocn.SpringSecurityJWT.data.repository.NaturalIdRepository;
+import com.blueocn.SpringSecurityJWT.data.repository.NaturalIdRepositoryImpl;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Second-level and natural-id cache for users and authorities, backed by an
+ * in-process Caffeine JCache provider. Every region is created up front with explicit
+ * size and TTL bounds; Hibernate is told to fail rather than silently create an
+ * unbounded region if an entity references one that is not listed here.
+ * <p>
+ * Lookups by username resolve through {@link NaturalIdRepository}, which is why the
+ * repositories are built on {@link NaturalIdRepositoryImpl}.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = NaturalIdRepository.class, repositoryBaseClass = NaturalIdRepositoryImpl.class)
+public class HibernateCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String USERS_NATURAL_ID_REGION = "users-natural-id";
+    public static final String AUTHORITIES_REGION = "authorities";
+    public static final String AUTHORITIES_NATURAL_ID_REGION = "authorities-natural-id";
+
+    @Value("${users.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${users.cache.ttl:PT10M}")
+    private Duration ttl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // A private manager per application context, so several contexts in one JVM never share regions
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : new String[]{
+                USERS_REGION, USERS_NATURAL_ID_REGION,
+                AUTHORITIES_REGION, AUTHORITIES_NATURAL_ID_REGION}) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
+}
@@ -1,6 +1,9 @@
 package com.blueocn.SpringSecurityJWT.config;
 
 import com.blueocn.SpringSecurityJWT.service.JWTService;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditEventType;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditService;
+import com.blueocn.TokenVerifier.VerificationResult;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.jdbc.JdbcDaoImpl;
@@ -18,9 +21,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
@@ -28,6 +29,9 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private JWTService jwtService;
 
+    @Autowired
+    private AuditService auditService;
+
     @Autowired
     ApplicationContext context;
 
@@ -40,26 +44,23 @@ public class JwtFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            Optional<String> usernameOpt = jwtService.extractUsername(token);
-            Optional<List<? extends GrantedAuthority>> rolesOpt = jwtService.extractAuthorities(token);
-
-            if (usernameOpt.isPresent() && rolesOpt.isPresent()) {
-
-                if (SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                    String username = usernameOpt.get();
-                    Collection<? extends GrantedAuthority> roles = rolesOpt.get();
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                    if (jwtService.validateToken(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                VerificationResult verification = jwtService.verify(token);
 
-                        UsernamePasswordAuthenticationToken authToken =
-                                new UsernamePasswordAuthenticationToken(username, null, roles);
+                if (verification.isValid()) {
 
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
+                    List<SimpleGrantedAuthority> roles = verification.roles().stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .toList();
 
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(verification.subject(), null, roles);
 
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                } else {
+                    auditService.publish(AuditEventType.TOKEN_REJECTED, null, null, verification.rejection());
                 }
 
             }
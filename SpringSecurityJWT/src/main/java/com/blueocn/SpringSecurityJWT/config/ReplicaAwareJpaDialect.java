@@ -0,0 +1,57 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Pins each transaction to the primary or the replica when it begins. Sessions
+ * reading from the replica may only read the second-level and natural-id caches,
+ * never fill them: a lagging replica would otherwise put rows in the cache that
+ * are older than what the primary already holds, and they would be served until
+ * the entries expire.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public ReplicaAwareJpaDialect(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        if (replicaRoutingDataSource.beginRoute(definition.isReadOnly())) {
+            session.setCacheMode(CacheMode.GET);
+        }
+        try {
+            return new RouteData(super.beginTransaction(entityManager, definition), session, previousCacheMode);
+        } catch (SQLException | RuntimeException e) {
+            session.setCacheMode(previousCacheMode);
+            replicaRoutingDataSource.endRoute();
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof RouteData routeData) {
+            // Open-in-view keeps the session for the next transaction of the request
+            routeData.session().setCacheMode(routeData.previousCacheMode());
+            replicaRoutingDataSource.endRoute();
+            super.cleanupTransaction(routeData.delegate());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record RouteData(Object delegate, Session session, CacheMode previousCacheMode) {
+    }
+}
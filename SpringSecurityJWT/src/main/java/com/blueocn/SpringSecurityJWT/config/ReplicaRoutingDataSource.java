@@ -0,0 +1,171 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else
+ * to the primary. Reads go back to the primary while the replica is unhealthy, and
+ * for a short window after the current principal wrote something, so users always
+ * see their own updates.
+ * <p>
+ * The read-only flag is only set once the transaction has begun, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * JPA transactions pin their route when they begin (see {@link ReplicaAwareJpaDialect}),
+ * so callers can tell whether what they read may lag behind the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Transaction resource holding the route pinned by beginRoute
+    private static final Object ROUTE_KEY = new Object();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long stickyWindowNanos;
+
+    private final Map<String, Long> lastWriteByPrincipal = new ConcurrentHashMap<>();
+    private volatile boolean replicaHealthy = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyWindowNanos = stickyWindow.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (routeToReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (routeToReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Whether the current transaction reads from the replica. Such reads may lag behind
+     * the primary, so nothing they return should be cached beyond the transaction.
+     */
+    public static boolean isReadingFromReplica() {
+        return Boolean.TRUE.equals(TransactionSynchronizationManager.getResource(ROUTE_KEY));
+    }
+
+    /**
+     * Decides the route of a transaction that is about to begin and pins it, so every
+     * connection it opens goes the same way. Must be paired with {@link #endRoute()}.
+     */
+    public boolean beginRoute(boolean readOnly) {
+        boolean toReplica = decideRoute(readOnly);
+        TransactionSynchronizationManager.bindResource(ROUTE_KEY, toReplica);
+        return toReplica;
+    }
+
+    public void endRoute() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE_KEY);
+    }
+
+    boolean routeToReplica() {
+        // Decided even when pinned, since that is where a write starts the principal's sticky window
+        boolean toReplica = decideRoute(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        Boolean pinned = (Boolean) TransactionSynchronizationManager.getResource(ROUTE_KEY);
+        return pinned != null ? pinned : toReplica;
+    }
+
+    private boolean decideRoute(boolean readOnly) {
+        String principal = currentPrincipal();
+        long now = System.nanoTime();
+
+        if (!readOnly) {
+            if (principal != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                lastWriteByPrincipal.put(principal, now);
+            }
+            return false;
+        }
+        if (!replicaHealthy) {
+            return false;
+        }
+        if (principal != null) {
+            Long lastWrite = lastWriteByPrincipal.get(principal);
+            if (lastWrite != null && now - lastWrite < stickyWindowNanos) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    /**
+     * Probes the replica and drops expired read-your-writes entries.
+     */
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.health-check-interval:PT5S}")
+    public void checkReplicaHealth() {
+        try (Connection connection = replica.getConnection()) {
+            boolean valid = connection.isValid(1);
+            if (valid && !replicaHealthy) {
+                LOGGER.info("Replica is reachable again - resuming read-only routing");
+            } else if (!valid && replicaHealthy) {
+                LOGGER.warn("Replica connection is not valid - routing reads to the primary");
+            }
+            replicaHealthy = valid;
+        } catch (SQLException e) {
+            markReplicaDown(e);
+        }
+
+        long now = System.nanoTime();
+        lastWriteByPrincipal.values().removeIf(lastWrite -> now - lastWrite >= stickyWindowNanos);
+    }
+
+    private void markReplicaDown(SQLException e) {
+        if (replicaHealthy) {
+            LOGGER.warn("Replica is unavailable - routing reads to the primary: {}", e.getMessage());
+        }
+        replicaHealthy = false;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : new DataSource[]{replica, primary}) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
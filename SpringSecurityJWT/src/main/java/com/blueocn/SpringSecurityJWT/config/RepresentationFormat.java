@@ -0,0 +1,51 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * The formats a user resource is served in. A strong ETag must differ between
+ * representations (RFC 9110 §8.8.3), and a shared cache revalidates with the tags of
+ * every variant it holds, so each format gets its own tag: JSON keeps the plain one,
+ * CBOR and Smile add a suffix such as {@code "42-3+cbor"}.
+ */
+public enum RepresentationFormat {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.APPLICATION_CBOR, "+cbor"),
+    SMILE(MediaType.valueOf(BinaryFormatConfig.APPLICATION_SMILE_VALUE), "+smile");
+
+    private final MediaType mediaType;
+    private final String eTagSuffix;
+
+    RepresentationFormat(MediaType mediaType, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    /**
+     * Picks the format the message converters will write for these accepted types,
+     * which arrive most preferred first. JSON wins ties because its converter comes first.
+     */
+    public static RepresentationFormat negotiate(List<MediaType> acceptedTypes) {
+        for (MediaType accepted : acceptedTypes) {
+            if (accepted.getQualityValue() == 0) {
+                continue;
+            }
+            for (RepresentationFormat format : values()) {
+                if (accepted.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    public String eTag(String eTag) {
+        if (eTagSuffix.isEmpty()) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + eTagSuffix + "\"";
+    }
+}
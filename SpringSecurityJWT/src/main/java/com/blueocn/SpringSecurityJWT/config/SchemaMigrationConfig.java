@@ -0,0 +1,14 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * The schema is owned by the Flyway migrations under {@code db/migration/{vendor}};
+ * Hibernate only validates the entities against it. Kept as a property source of
+ * defaults so a local {@code application.properties} can still override them.
+ */
+@Configuration
+@PropertySource("classpath:schema-migration.properties")
+public class SchemaMigrationConfig {
+}
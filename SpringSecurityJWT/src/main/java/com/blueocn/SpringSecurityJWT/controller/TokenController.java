@@ -0,0 +1,35 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.data.dto.IntrospectionRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.IntrospectionResult;
+import com.blueocn.SpringSecurityJWT.service.TokenIntrospectionService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/tokens")
+public class TokenController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    @Autowired
+    public TokenController(TokenIntrospectionService tokenIntrospectionService) {
+        this.tokenIntrospectionService = tokenIntrospectionService;
+    }
+
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/introspect")
+    @SecurityRequirement(name = "basicAuth")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<IntrospectionResult>> introspect(@Valid @RequestBody IntrospectionRequest request) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(request.getTokens()));
+    }
+
+}
@@ -1,20 +1,31 @@
 package com.blueocn.SpringSecurityJWT.controller;
 
+import com.blueocn.SpringSecurityJWT.config.RepresentationFormat;
 import com.blueocn.SpringSecurityJWT.data.dto.AuthRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.PatchRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UserSearchResult;
 import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
 import com.blueocn.SpringSecurityJWT.service.AuthorityService;
 import com.blueocn.SpringSecurityJWT.service.UserService;
+import com.blueocn.SpringSecurityJWT.service.UserVersionCache;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.List;
 
@@ -25,6 +36,8 @@ public class UserController {
 
     private final UserService userService;
     private final AuthorityService authorityService;
+    private final UserVersionCache userVersionCache;
+    private final ContentNegotiationManager contentNegotiationManager;
 
 //    @Autowired
 //    private JwtUtil jwtUtil;
@@ -35,9 +48,12 @@ public class UserController {
 
 
     @Autowired
-    public UserController(UserService userService, AuthorityService authorityService) {
+    public UserController(UserService userService, AuthorityService authorityService, UserVersionCache userVersionCache,
+                          ContentNegotiationManager contentNegotiationManager) {
         this.userService = userService;
         this.authorityService = authorityService;
+        this.userVersionCache = userVersionCache;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
 
 
@@ -58,8 +74,29 @@ public class UserController {
     @GetMapping
     @SecurityRequirement(name = "basicAuth")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<List<UserEntity>> getUsers() {
-        return ResponseEntity.ok(userService.getUsers());
+    public ResponseEntity<List<UserEntity>> getUsers(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        // Read the tag before loading so a concurrent write can only make the ETag stale, never too new
+        String eTag = negotiatedFormat(request).eTag(userService.getUsersETag());
+        if (UserVersionCache.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(userService.getUsers());
+    }
+
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/search")
+    @SecurityRequirement(name = "basicAuth")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<UserSearchResult> searchUsers(
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "enabled", required = false) Boolean enabled,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(userService.searchUsers(prefix, role, enabled, cursor, limit));
     }
 
 
@@ -74,6 +111,17 @@ public class UserController {
     }
 
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping(value = "/{username}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @SecurityRequirement(name = "basicAuth")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<String> patchUser(@PathVariable("username") String username, @Valid @RequestBody PatchRequest request) {
+        userService.patchUser(username, request);
+        authorityService.patchAuthority(username, request);
+        return ResponseEntity.ok("User updated successfully.");
+    }
+
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{username}")
     @SecurityRequirement(name = "basicAuth")
@@ -89,9 +137,24 @@ public class UserController {
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
     @SecurityRequirement(name = "basicAuth")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<UserEntity> getCurrentUser(Authentication authentication) {
+    public ResponseEntity<UserEntity> getCurrentUser(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
         String username = authentication.getName();
-        return ResponseEntity.ok(userService.getUserByUsername(username));
+        RepresentationFormat format = negotiatedFormat(request);
+        if (ifNoneMatch != null) {
+            String cachedETag = userVersionCache.cachedETag(username).map(format::eTag).orElse(null);
+            if (UserVersionCache.matches(ifNoneMatch, cachedETag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cachedETag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        UserEntity user = userService.getUserByUsername(username);
+        return ResponseEntity.ok().eTag(format.eTag(UserVersionCache.eTagOf(user))).varyBy(HttpHeaders.ACCEPT).body(user);
+    }
+
+    private RepresentationFormat negotiatedFormat(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        return RepresentationFormat.negotiate(contentNegotiationManager.resolveMediaTypes(request));
     }
 
 }
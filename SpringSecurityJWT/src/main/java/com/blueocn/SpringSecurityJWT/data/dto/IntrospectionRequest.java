@@ -0,0 +1,24 @@
+package com.blueocn.SpringSecurityJWT.data.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class IntrospectionRequest {
+
+    public static final int MAX_TOKENS = 1000;
+
+    @NotEmpty(message = "Tokens cannot be empty")
+    @Size(max = MAX_TOKENS, message = "At most " + MAX_TOKENS + " tokens can be introspected per request")
+    private List<@NotBlank(message = "Token cannot be blank") String> tokens;
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+}
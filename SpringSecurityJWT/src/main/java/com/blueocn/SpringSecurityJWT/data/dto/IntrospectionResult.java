@@ -0,0 +1,13 @@
+package com.blueocn.SpringSecurityJWT.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Per-token answer, in the same order as the request. Inactive tokens only carry
+ * {@code error}; {@code exp} is in epoch seconds as in the JWT itself.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IntrospectionResult(boolean active, String sub, List<String> roles, Long exp, String error) {
+}
@@ -0,0 +1,60 @@
+package com.blueocn.SpringSecurityJWT.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * JSON Merge Patch (RFC 7386) body for a user. Absent fields are left unchanged.
+ * Every field is required on the account, so a {@code null} (remove) is rejected.
+ */
+public class PatchRequest {
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+    private String username;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Size(min = 8, message = "Password must be at least 8 characters")
+    private String password;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = "^ROLE_[A-Z]+$", message = "Authority must start with 'ROLE_' and use uppercase")
+    private String role;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Boolean enabled;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+}
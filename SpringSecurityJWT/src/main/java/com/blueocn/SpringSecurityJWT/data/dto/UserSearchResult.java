@@ -0,0 +1,10 @@
+package com.blueocn.SpringSecurityJWT.data.dto;
+
+import java.util.List;
+
+/**
+ * One page of search hits in username order. Pass {@code nextCursor} back as
+ * {@code cursor} for the following page; it is null on the last page.
+ */
+public record UserSearchResult(List<UserSummary> users, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.blueocn.SpringSecurityJWT.data.dto;
+
+/**
+ * Search index entry. {@code role} is null while a user has no authority row.
+ */
+public record UserSummary(String username, String role, boolean enabled) {
+}
@@ -0,0 +1,59 @@
+package com.blueocn.SpringSecurityJWT.data.entity.audit;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Maps {@code audit_events} so the schema is managed with the other tables. Rows are
+ * written in batches by {@link com.blueocn.SpringSecurityJWT.service.audit.JdbcAuditWriter}
+ * rather than through JPA.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_events_subject", columnList = "subject"),
+        @Index(name = "idx_audit_events_occurred_at", columnList = "occurred_at")
+})
+public class AuditEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    private String actor;
+
+    private String subject;
+
+    @Column(length = 1024)
+    private String detail;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -1,15 +1,25 @@
 package com.blueocn.SpringSecurityJWT.data.entity.authority;
 
+import com.blueocn.SpringSecurityJWT.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
-@Table(name = "authorities")
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.AUTHORITIES_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.AUTHORITIES_NATURAL_ID_REGION)
+@Table(name = "authorities", indexes = @Index(name = "idx_authorities_login", columnList = "username, authority"))
 public class AuthorityEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -0,0 +1,71 @@
+package com.blueocn.SpringSecurityJWT.data.entity.change;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "user_changes", indexes = @Index(name = "idx_user_changes_created_at", columnList = "created_at"))
+public class UserChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private UserChangeType type;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public UserChangeEntity() {
+    }
+
+    public UserChangeEntity(String username, UserChangeType type, String nodeId, Instant createdAt) {
+        this.username = username;
+        this.type = type;
+        this.nodeId = nodeId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public UserChangeType getType() {
+        return type;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChangeEntity{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", type=" + type +
+                ", nodeId='" + nodeId + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
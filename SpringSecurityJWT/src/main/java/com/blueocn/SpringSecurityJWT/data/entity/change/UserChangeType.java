@@ -0,0 +1,7 @@
+package com.blueocn.SpringSecurityJWT.data.entity.change;
+
+public enum UserChangeType {
+    REGISTERED,
+    UPDATED,
+    DELETED
+}
@@ -1,15 +1,25 @@
 package com.blueocn.SpringSecurityJWT.data.entity.user;
 
+import com.blueocn.SpringSecurityJWT.config.HibernateCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
-@Table(name = "users")
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USERS_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.USERS_NATURAL_ID_REGION)
+@Table(name = "users", indexes = @Index(name = "idx_users_login", columnList = "username, password, enabled, version"))
 public class UserEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -19,6 +29,10 @@ public class UserEntity {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public UserEntity() {}
 
     public UserEntity(String password, String username) {
@@ -58,6 +72,14 @@ public class UserEntity {
         this.enabled = enabled;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "UserEntity{" +
@@ -65,6 +87,7 @@ public class UserEntity {
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
                 ", enabled=" + enabled +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,17 @@
+package com.blueocn.SpringSecurityJWT.data.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Optional;
+
+/**
+ * Repository for an entity with a single {@code @NaturalId}. Lookups go through
+ * Hibernate's natural-id API, so they are answered from the natural-id and entity
+ * cache regions when both are warm and cost one select by natural id otherwise.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends JpaRepository<T, ID> {
+
+    Optional<T> findBySimpleNaturalId(Object naturalId);
+}
@@ -0,0 +1,27 @@
+package com.blueocn.SpringSecurityJWT.data.repository;
+
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChangeEntity, Long> {
+
+    List<UserChangeEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from UserChangeEntity c")
+    long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserChangeEntity c where c.createdAt < :before and c.id < :keepFromId")
+    int deleteCreatedBefore(@Param("before") Instant before, @Param("keepFromId") long keepFromId);
+}
@@ -1,12 +1,13 @@
 package com.blueocn.SpringSecurityJWT.data.repository;
 
 import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
-    Optional<UserEntity> findByUsername(String username);
+public interface UserRepository extends NaturalIdRepository<UserEntity, Long> {
+    default Optional<UserEntity> findByUsername(String username) {
+        return findBySimpleNaturalId(username);
+    }
 }
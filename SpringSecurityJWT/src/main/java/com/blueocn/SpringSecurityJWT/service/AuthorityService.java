@@ -1,13 +1,18 @@
 package com.blueocn.SpringSecurityJWT.service;
 
+import com.blueocn.SpringSecurityJWT.data.dto.PatchRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
 import com.blueocn.SpringSecurityJWT.data.entity.authority.AuthorityEntity;
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeType;
 import com.blueocn.SpringSecurityJWT.data.repository.AuthorityRepository;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditEventType;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -16,12 +21,30 @@ public class AuthorityService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AuthorityService.class);
     private final AuthorityRepository authorityRepository;
+    private final UserChangeLog userChangeLog;
+    private final AuditService auditService;
+    private final UserSearchIndex userSearchIndex;
 
     @Autowired
-    public AuthorityService(AuthorityRepository authorityRepository) {
+    public AuthorityService(AuthorityRepository authorityRepository, UserChangeLog userChangeLog, AuditService auditService,
+                            UserSearchIndex userSearchIndex) {
         this.authorityRepository = authorityRepository;
+        this.userChangeLog = userChangeLog;
+        this.auditService = auditService;
+        this.userSearchIndex = userSearchIndex;
     }
 
+    @Transactional(readOnly = true)
+    public AuthorityEntity getAuthorityByUsername(String username) {
+        LOGGER.debug("Fetching authority for user '{}'", username);
+        return authorityRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    LOGGER.warn("Authority for user '{}' not found", username);
+                    return new IllegalArgumentException("Authority was not found.");
+                });
+    }
+
+    @Transactional
     public AuthorityEntity registerAuthority(RegisterRequest request) {
         LOGGER.debug("Attempting to register authority for user '{}'", request.getUsername());
         if (authorityRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -31,11 +54,14 @@ public class AuthorityService {
 
         AuthorityEntity auth = new AuthorityEntity(request.getAuthority(), request.getUsername());
         AuthorityEntity savedAuth = authorityRepository.save(auth);
+        userChangeLog.append(savedAuth.getUser(), UserChangeType.REGISTERED);
+        userSearchIndex.authoritySaved(savedAuth.getUser(), savedAuth.getUser(), savedAuth.getAuthority());
 
-        LOGGER.info("Authority '{}' successfully registered for user '{}'", savedAuth.getAuthority(), savedAuth.getUser());
+        auditService.publishAfterCommit(AuditEventType.REGISTER, savedAuth.getUser(), "authority=" + savedAuth.getAuthority());
         return savedAuth;
     }
 
+    @Transactional
     public AuthorityEntity updateAuthority(String username, UpdateRequest request) {
         LOGGER.debug("Attempting to update authority for user '{}'", username);
         return authorityRepository.findByUsername(username)
@@ -43,7 +69,13 @@ public class AuthorityService {
                     authorityEntity.setUser(request.getUsername());
                     authorityEntity.setAuthority(request.getRole());
                     AuthorityEntity updatedAuth = authorityRepository.save(authorityEntity);
-                    LOGGER.info("Authority successfully updated for user '{}'", updatedAuth.getUser());
+                    userChangeLog.append(username, UserChangeType.UPDATED);
+                    if (!username.equals(updatedAuth.getUser())) {
+                        userChangeLog.append(updatedAuth.getUser(), UserChangeType.UPDATED);
+                    }
+                    userSearchIndex.authoritySaved(username, updatedAuth.getUser(), updatedAuth.getAuthority());
+                    auditService.publishAfterCommit(AuditEventType.UPDATE, username,
+                            "authority username=" + updatedAuth.getUser() + " authority=" + updatedAuth.getAuthority());
                     return updatedAuth;
                 }).orElseThrow(() -> {
                     LOGGER.error("Failed to update - authority for user '{}' not found", username);
@@ -51,6 +83,43 @@ public class AuthorityService {
                 });
     }
 
+    /**
+     * Writes the authority row only when the role changes or the user was renamed.
+     */
+    @Transactional
+    public AuthorityEntity patchAuthority(String username, PatchRequest patch) {
+        LOGGER.debug("Attempting to patch authority for user '{}'", username);
+        AuthorityEntity authority = authorityRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    LOGGER.error("Failed to patch - authority for user '{}' not found", username);
+                    return new IllegalArgumentException("Authority was not found.");
+                });
+
+        boolean changed = false;
+        if (patch.getUsername() != null && !patch.getUsername().equals(authority.getUser())) {
+            authority.setUser(patch.getUsername());
+            changed = true;
+        }
+        if (patch.getRole() != null && !patch.getRole().equals(authority.getAuthority())) {
+            authority.setAuthority(patch.getRole());
+            changed = true;
+        }
+        if (!changed) {
+            return authority;
+        }
+
+        AuthorityEntity patchedAuth = authorityRepository.save(authority);
+        userChangeLog.append(username, UserChangeType.UPDATED);
+        if (!username.equals(patchedAuth.getUser())) {
+            userChangeLog.append(patchedAuth.getUser(), UserChangeType.UPDATED);
+        }
+        userSearchIndex.authoritySaved(username, patchedAuth.getUser(), patchedAuth.getAuthority());
+        auditService.publishAfterCommit(AuditEventType.UPDATE, username,
+                "authority username=" + patchedAuth.getUser() + " authority=" + patchedAuth.getAuthority());
+        return patchedAuth;
+    }
+
+    @Transactional
     public void deleteAuthority(String username) {
         LOGGER.debug("Attempting to delete authority for user '{}'", username);
 
@@ -62,7 +131,9 @@ public class AuthorityService {
         }
 
         authorityRepository.deleteById(authority.get().getId());
-        LOGGER.info("Authority successfully deleted for user '{}'", username);
+        userChangeLog.append(username, UserChangeType.DELETED);
+        userSearchIndex.authorityDeleted(username);
+        auditService.publishAfterCommit(AuditEventType.DELETE, username, "authority");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.entity.authority.AuthorityEntity;
+import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Drops second-level cache state for users and authorities written on other nodes.
+ * The change log carries usernames rather than ids, and writes are rare, so whole
+ * regions are evicted once per batch instead of resolving each entry.
+ */
+@Component
+public class HibernateCacheInvalidator implements UserChangeListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void onUserChanges(Set<String> usernames) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(UserEntity.class);
+        cache.evictNaturalIdData(UserEntity.class);
+        cache.evictEntityData(AuthorityEntity.class);
+        cache.evictNaturalIdData(AuthorityEntity.class);
+    }
+}
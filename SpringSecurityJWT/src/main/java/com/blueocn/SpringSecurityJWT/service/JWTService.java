@@ -1,19 +1,17 @@
 package com.blueocn.SpringSecurityJWT.service;
 
-import com.blueocn.SpringSecurityJWT.data.dto.AuthRequest;
-import io.jsonwebtoken.*;
+import com.blueocn.TokenVerifier.KeySource;
+import com.blueocn.TokenVerifier.TokenVerifier;
+import com.blueocn.TokenVerifier.VerificationResult;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.time.Clock;
 
 @Service
 public class JWTService {
@@ -24,23 +22,25 @@ public class JWTService {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.minting.role-set-cache-size:1024}")
+    private long roleSetCacheSize;
 
-    public String generateToken(UserDetails userDetails) {
+    // The verifier is immutable and thread-safe, so one is shared by every request
+    private TokenVerifier verifier;
+
+    private TokenMinter minter;
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList()));
+    @PostConstruct
+    void init() {
+        SecretKey key = getKey();
+        verifier = TokenVerifier.builder()
+                .keySource(KeySource.of(key))
+                .build();
+        minter = new TokenMinter(key, expiration, Clock.systemUTC(), roleSetCacheSize);
+    }
 
-        return Jwts.builder()
-                .claims()
-                .add(claims)
-                .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .and()
-                .signWith(getKey(), Jwts.SIG.HS256)
-                .compact();
+    public String generateToken(UserDetails userDetails) {
+        return minter.mint(userDetails.getUsername(), userDetails.getAuthorities());
     }
 
     private SecretKey getKey() {
@@ -48,73 +48,11 @@ public class JWTService {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
-//    public String extractUsername(String token) {
-//            return extractClaim(token, Claims::getSubject);
-//    }
-
-    public Optional<String> extractUsername(String token) {
-        try {
-            return Optional.ofNullable(extractClaim(token, Claims::getSubject));
-        } catch (Exception e) {
-            // You could log this if needed
-            return Optional.empty();
-        }
-    }
-
-    public Optional<List<? extends GrantedAuthority>> extractAuthorities(String token) {
-        try {
-            List<String> roles = extractClaim(token, claims -> claims.get("roles", List.class));
-            List<? extends GrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .toList();
-            return Optional.of(authorities);
-        } catch (Exception e) {
-            return Optional.empty();
-        }
-    }
-
-
-
-
-    private  <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (ExpiredJwtException e) {
-            // Token has expired
-            throw new RuntimeException("JWT token has expired", e);
-        } catch (MalformedJwtException e) {
-            // Token structure is invalid
-            throw new RuntimeException("Invalid JWT token format", e);
-        } catch (JwtException e) {
-            // Covers SignatureException, UnsupportedJwtException, etc.
-            throw new RuntimeException("JWT token parsing failed", e);
-        }
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            String username = extractUsername(token).orElse(null);
-            return username != null && !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifies the signature and expiry of a token in a single parse and reports why it
+     * was rejected, if it was.
+     */
+    public VerificationResult verify(String token) {
+        return verifier.verify(token);
     }
-}
\ No newline at end of file
+}
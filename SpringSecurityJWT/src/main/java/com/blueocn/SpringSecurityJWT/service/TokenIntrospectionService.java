@@ -0,0 +1,93 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.dto.IntrospectionResult;
+import com.blueocn.TokenVerifier.VerificationResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies batches of tokens for gateways. Small batches are checked on the calling
+ * thread, where an HMAC check is cheaper than a hand-off; larger ones are split into
+ * one chunk per worker of a bounded pool. When the pool's queue is full the caller
+ * verifies the chunk itself, so a burst slows requests down rather than piling up.
+ */
+@Service
+public class TokenIntrospectionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenIntrospectionService.class);
+
+    private final JWTService jwtService;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final int parallelThreshold;
+
+    public TokenIntrospectionService(JWTService jwtService,
+                                     @Value("${jwt.introspection.threads:0}") int threads,
+                                     @Value("${jwt.introspection.parallel-threshold:64}") int parallelThreshold,
+                                     @Value("${jwt.introspection.queue-capacity:256}") int queueCapacity) {
+        this.jwtService = jwtService;
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = parallelThreshold;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "token-introspection");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    // Unlike CallerRunsPolicy, never drop a task silently, or its future would never complete
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Token introspection pool is shut down");
+                    }
+                    task.run();
+                });
+    }
+
+    public List<IntrospectionResult> introspect(List<String> tokens) {
+        LOGGER.debug("Introspecting {} tokens", tokens.size());
+        IntrospectionResult[] results = new IntrospectionResult[tokens.size()];
+
+        if (tokens.size() < parallelThreshold || parallelism == 1) {
+            introspectRange(tokens, results, 0, tokens.size());
+            return Arrays.asList(results);
+        }
+
+        int chunk = (tokens.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<Void>> futures = new ArrayList<>(parallelism);
+        for (int from = 0; from < tokens.size(); from += chunk) {
+            int start = from;
+            int end = Math.min(from + chunk, tokens.size());
+            futures.add(CompletableFuture.runAsync(() -> introspectRange(tokens, results, start, end), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return Arrays.asList(results);
+    }
+
+    private void introspectRange(List<String> tokens, IntrospectionResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            VerificationResult verification = jwtService.verify(tokens.get(i));
+            results[i] = verification.isValid()
+                    ? new IntrospectionResult(true, verification.subject(), verification.roles(),
+                            verification.expiresAt().getEpochSecond(), null)
+                    : new IntrospectionResult(false, null, null, null, verification.rejection());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
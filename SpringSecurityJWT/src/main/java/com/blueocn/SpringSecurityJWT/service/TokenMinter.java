@@ -0,0 +1,248 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mints the same compact HS256 tokens as the jjwt builder without going through
+ * it. The header segment is encoded once, the {@code roles} claim is serialized
+ * once per distinct authority set, and each token is written, encoded and signed
+ * in per-thread buffers, so the returned string is the only sizeable allocation.
+ */
+public class TokenMinter {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // {"alg":"HS256"}, the header jjwt writes for an HS256 token without a key id
+    private static final byte[] HEADER_SEGMENT = "eyJhbGciOiJIUzI1NiJ9.".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] SUB = ",\"sub\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IAT = ",\"iat\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXP = ",\"exp\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final long expirationMillis;
+    private final Clock clock;
+    private final Cache<Collection<?>, byte[]> rolesFragments;
+    private final ThreadLocal<Buffers> buffers;
+
+    public TokenMinter(SecretKey key, long expirationMillis, Clock clock, long maxRoleSets) {
+        this.expirationMillis = expirationMillis;
+        this.clock = clock;
+        this.rolesFragments = Caffeine.newBuilder().maximumSize(maxRoleSets).build();
+        // Fail at startup rather than on the first login if the key is unusable
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(key));
+        buffers.get();
+    }
+
+    public String mint(String subject, Collection<? extends GrantedAuthority> authorities) {
+        // One clock read, so iat and exp are always exactly the expiration apart
+        long now = clock.millis();
+        Buffers buffers = this.buffers.get();
+
+        ByteSink payload = buffers.payload;
+        payload.reset();
+        payload.write(rolesFragment(authorities));
+        payload.write(SUB);
+        writeJsonString(payload, subject);
+        payload.write(IAT);
+        payload.writeLong(now / 1000);
+        payload.write(EXP);
+        payload.writeLong((now + expirationMillis) / 1000);
+        payload.write('}');
+
+        ByteSink token = buffers.token;
+        token.reset();
+        token.write(HEADER_SEGMENT);
+        writeBase64Url(token, payload.bytes, payload.length);
+
+        Mac mac = buffers.mac;
+        mac.update(token.bytes, 0, token.length);
+        try {
+            mac.doFinal(buffers.signature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Signature buffer is too small for " + MAC_ALGORITHM, e);
+        }
+        token.write('.');
+        writeBase64Url(token, buffers.signature, SIGNATURE_LENGTH);
+
+        return new String(token.bytes, 0, token.length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The start of the payload, such as <code>{"roles":["ROLE_USER"]</code>. Looked up
+     * by the caller's collection, which is only copied the first time a set is seen.
+     */
+    private byte[] rolesFragment(Collection<? extends GrantedAuthority> authorities) {
+        byte[] fragment = rolesFragments.getIfPresent(authorities);
+        if (fragment != null) {
+            return fragment;
+        }
+
+        ByteSink sink = new ByteSink(64);
+        sink.write('{');
+        writeJsonString(sink, "roles");
+        sink.write(':');
+        sink.write('[');
+        boolean first = true;
+        for (GrantedAuthority authority : authorities) {
+            if (!first) {
+                sink.write(',');
+            }
+            writeJsonString(sink, authority.getAuthority());
+            first = false;
+        }
+        sink.write(']');
+        fragment = Arrays.copyOf(sink.bytes, sink.length);
+
+        Collection<?> key = authorities instanceof Set<?> set ? Set.copyOf(set) : List.copyOf(authorities);
+        rolesFragments.put(key, fragment);
+        return fragment;
+    }
+
+    private static void writeJsonString(ByteSink sink, String value) {
+        sink.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sink.write('\\');
+                sink.write(c);
+            } else if (c < 0x20) {
+                sink.write('\\');
+                sink.write('u');
+                sink.write('0');
+                sink.write('0');
+                sink.write(HEX[c >> 4]);
+                sink.write(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                sink.write(c);
+            } else if (c < 0x800) {
+                sink.write(0xC0 | (c >> 6));
+                sink.write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                sink.write(0xF0 | (codePoint >> 18));
+                sink.write(0x80 | ((codePoint >> 12) & 0x3F));
+                sink.write(0x80 | ((codePoint >> 6) & 0x3F));
+                sink.write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced the same way String.getBytes does
+                sink.write('?');
+            } else {
+                sink.write(0xE0 | (c >> 12));
+                sink.write(0x80 | ((c >> 6) & 0x3F));
+                sink.write(0x80 | (c & 0x3F));
+            }
+        }
+        sink.write('"');
+    }
+
+    private static void writeBase64Url(ByteSink sink, byte[] source, int length) {
+        sink.ensureCapacity((length + 2) / 3 * 4);
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+            sink.write(BASE64_URL[bits >>> 18]);
+            sink.write(BASE64_URL[(bits >>> 12) & 0x3F]);
+            sink.write(BASE64_URL[(bits >>> 6) & 0x3F]);
+            sink.write(BASE64_URL[bits & 0x3F]);
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (source[i] & 0xFF) << 16;
+            sink.write(BASE64_URL[bits >>> 18]);
+            sink.write(BASE64_URL[(bits >>> 12) & 0x3F]);
+        } else if (remaining == 2) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+            sink.write(BASE64_URL[bits >>> 18]);
+            sink.write(BASE64_URL[(bits >>> 12) & 0x3F]);
+            sink.write(BASE64_URL[(bits >>> 6) & 0x3F]);
+        }
+    }
+
+    private static final class Buffers {
+
+        private final Mac mac;
+        private final ByteSink payload = new ByteSink(256);
+        private final ByteSink token = new ByteSink(512);
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+        private Buffers(SecretKey key) {
+            try {
+                mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialise " + MAC_ALGORITHM + " with the JWT key", e);
+            }
+        }
+    }
+
+    private static final class ByteSink {
+
+        private byte[] bytes;
+        private int length;
+
+        private ByteSink(int initialCapacity) {
+            bytes = new byte[initialCapacity];
+        }
+
+        private void reset() {
+            length = 0;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        private void write(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        private void write(byte[] source) {
+            ensureCapacity(source.length);
+            System.arraycopy(source, 0, bytes, length, source.length);
+            length += source.length;
+        }
+
+        private void writeLong(long value) {
+            if (value == 0) {
+                write('0');
+                return;
+            }
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            int digits = 0;
+            for (long v = value; v > 0; v /= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+    }
+}
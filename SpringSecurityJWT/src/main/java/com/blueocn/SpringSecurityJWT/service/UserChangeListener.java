@@ -0,0 +1,13 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import java.util.Set;
+
+/**
+ * Receives batches of usernames changed on other nodes, as read from the
+ * {@code user_changes} log by {@link UserChangePoller}. Implementations must be
+ * idempotent: a batch may be delivered again after a restart.
+ */
+public interface UserChangeListener {
+
+    void onUserChanges(Set<String> usernames);
+}
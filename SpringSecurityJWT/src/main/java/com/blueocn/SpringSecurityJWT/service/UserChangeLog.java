@@ -0,0 +1,45 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeEntity;
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeType;
+import com.blueocn.SpringSecurityJWT.data.repository.UserChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Appends user and authority writes to the {@code user_changes} table so other
+ * nodes can invalidate their caches. Must run inside the transaction of the write
+ * it records, so a change is visible to other nodes exactly when the write is.
+ */
+@Service
+public class UserChangeLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserChangeLog.class);
+
+    private final UserChangeRepository userChangeRepository;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public UserChangeLog(UserChangeRepository userChangeRepository) {
+        this.userChangeRepository = userChangeRepository;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long latestChangeId() {
+        return userChangeRepository.findMaxId();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String username, UserChangeType type) {
+        userChangeRepository.save(new UserChangeEntity(username, type, nodeId, Instant.now()));
+        LOGGER.debug("Recorded {} change for user '{}'", type, username);
+    }
+}
@@ -0,0 +1,125 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeEntity;
+import com.blueocn.SpringSecurityJWT.data.repository.UserChangeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tails the {@code user_changes} table on its monotonic id and hands the usernames
+ * changed by other nodes to every {@link UserChangeListener} in one batch per poll.
+ * <p>
+ * Identity values are allocated at insert time but become visible at commit, so a
+ * lower id can appear after a higher one. The cursor therefore only moves past rows
+ * older than the settle window; younger rows are re-read on the next poll and
+ * skipped if they were already applied.
+ */
+@Component
+public class UserChangePoller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserChangePoller.class);
+
+    private final UserChangeRepository userChangeRepository;
+    private final UserChangeLog userChangeLog;
+    private final List<UserChangeListener> listeners;
+    private final Timer convergenceLag;
+
+    @Value("${users.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${users.changes.settle-window:PT5S}")
+    private Duration settleWindow;
+
+    @Value("${users.changes.retention:P1D}")
+    private Duration retention;
+
+    private long cursor;
+    private final Set<Long> appliedAboveCursor = new HashSet<>();
+
+    public UserChangePoller(UserChangeRepository userChangeRepository, UserChangeLog userChangeLog,
+                            List<UserChangeListener> listeners, MeterRegistry meterRegistry) {
+        this.userChangeRepository = userChangeRepository;
+        this.userChangeLog = userChangeLog;
+        this.listeners = listeners;
+        this.convergenceLag = Timer.builder("users.changes.convergence.lag")
+                .description("Time between a write on another node and its invalidation on this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        // Local caches start empty, so history before startup never needs replaying
+        cursor = userChangeRepository.findMaxId();
+        LOGGER.info("Tailing user changes from id {} as node {}", cursor, userChangeLog.getNodeId());
+    }
+
+    @Scheduled(fixedDelayString = "${users.changes.poll-interval:PT1S}")
+    public synchronized int pollOnce() {
+        List<UserChangeEntity> changes =
+                userChangeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize));
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        Instant settledBefore = now.minus(settleWindow);
+        Set<String> usernames = new LinkedHashSet<>();
+        Instant oldestApplied = null;
+        long newCursor = cursor;
+        boolean settled = true;
+
+        for (UserChangeEntity change : changes) {
+            if (!appliedAboveCursor.contains(change.getId())
+                    && !change.getNodeId().equals(userChangeLog.getNodeId())) {
+                usernames.add(change.getUsername());
+                if (oldestApplied == null || change.getCreatedAt().isBefore(oldestApplied)) {
+                    oldestApplied = change.getCreatedAt();
+                }
+            }
+            settled = settled && change.getCreatedAt().isBefore(settledBefore);
+            if (settled) {
+                newCursor = change.getId();
+            } else {
+                appliedAboveCursor.add(change.getId());
+            }
+        }
+
+        if (!usernames.isEmpty()) {
+            for (UserChangeListener listener : listeners) {
+                listener.onUserChanges(usernames);
+            }
+            convergenceLag.record(Duration.between(oldestApplied, now));
+            LOGGER.debug("Applied invalidations for {} users changed on other nodes", usernames.size());
+        }
+
+        cursor = newCursor;
+        final long settledCursor = newCursor;
+        appliedAboveCursor.removeIf(id -> id <= settledCursor);
+        return usernames.size();
+    }
+
+    @Scheduled(fixedDelayString = "${users.changes.prune-interval:PT1H}")
+    public void prune() {
+        // The newest change always survives: its id is the user list's ETag, which must never go back.
+        // Read separately, as MySQL rejects a delete whose subquery reads the same table.
+        long newestId = userChangeRepository.findMaxId();
+        int deleted = userChangeRepository.deleteCreatedBefore(Instant.now().minus(retention), newestId);
+        if (deleted > 0) {
+            LOGGER.info("Pruned {} user changes older than {}", deleted, retention);
+        }
+    }
+}
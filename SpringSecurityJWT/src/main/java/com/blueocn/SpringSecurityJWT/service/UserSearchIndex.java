@@ -0,0 +1,116 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.dto.UserSearchResult;
+import com.blueocn.SpringSecurityJWT.data.dto.UserSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Usernames with their role and enabled flag, sorted so that a prefix search is a
+ * range scan over a skip list. Loaded from the database at startup, then kept
+ * current by the user and authority services (after their transaction commits)
+ * and by the change log for writes made on other nodes.
+ */
+@Component
+public class UserSearchIndex implements UserChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final String LOAD_SQL =
+            "select u.username, u.enabled, a.authority from users u left join authorities a on a.username = u.username";
+    private static final String RELOAD_SQL = LOAD_SQL + " where u.username = ?";
+
+    private final ConcurrentSkipListMap<String, UserSummary> users = new ConcurrentSkipListMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("users.search.index.size", users, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            String username = rs.getString("username");
+            users.put(username, new UserSummary(username, rs.getString("authority"), rs.getBoolean("enabled")));
+        });
+        LOGGER.info("User search index loaded with {} users", users.size());
+    }
+
+    /**
+     * Up to {@code limit} users whose name starts with {@code prefix}, after
+     * {@code cursor} if given. {@code role} and {@code enabled} are optional filters.
+     */
+    public UserSearchResult search(String prefix, String role, Boolean enabled, String cursor, int limit) {
+        ConcurrentNavigableMap<String, UserSummary> range = cursor != null && cursor.compareTo(prefix) >= 0
+                ? users.tailMap(cursor, false)
+                : users.tailMap(prefix, true);
+
+        List<UserSummary> page = new ArrayList<>(Math.min(limit, 64));
+        for (UserSummary user : range.values()) {
+            if (!user.username().startsWith(prefix)) {
+                break;
+            }
+            if ((role != null && !role.equals(user.role())) || (enabled != null && enabled != user.enabled())) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new UserSearchResult(page, page.get(limit - 1).username());
+            }
+            page.add(user);
+        }
+        return new UserSearchResult(page, null);
+    }
+
+    public void userSaved(String previousUsername, String username, boolean enabled) {
+        TransactionCallbacks.afterCommit(() -> {
+            UserSummary previous = previousUsername != null ? users.remove(previousUsername) : null;
+            String role = previous != null ? previous.role() : null;
+            users.merge(username, new UserSummary(username, role, enabled),
+                    (current, saved) -> new UserSummary(username, current.role(), enabled));
+        });
+    }
+
+    public void userDeleted(String username) {
+        TransactionCallbacks.afterCommit(() -> users.remove(username));
+    }
+
+    public void authoritySaved(String previousUsername, String username, String role) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (!previousUsername.equals(username)) {
+                users.computeIfPresent(previousUsername, (name, user) -> new UserSummary(name, null, user.enabled()));
+            }
+            users.computeIfPresent(username, (name, user) -> new UserSummary(name, role, user.enabled()));
+        });
+    }
+
+    public void authorityDeleted(String username) {
+        TransactionCallbacks.afterCommit(() -> users.computeIfPresent(username, (name, user) -> new UserSummary(name, null, user.enabled())));
+    }
+
+    @Override
+    public void onUserChanges(Set<String> usernames) {
+        for (String username : usernames) {
+            List<UserSummary> current = jdbcTemplate.query(RELOAD_SQL,
+                    (rs, row) -> new UserSummary(username, rs.getString("authority"), rs.getBoolean("enabled")),
+                    username);
+            if (current.isEmpty()) {
+                users.remove(username);
+            } else {
+                users.put(username, current.get(0));
+            }
+        }
+    }
+}
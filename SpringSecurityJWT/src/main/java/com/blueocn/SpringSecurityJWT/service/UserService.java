@@ -1,10 +1,15 @@
 package com.blueocn.SpringSecurityJWT.service;
 
 import com.blueocn.SpringSecurityJWT.data.dto.AuthRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.PatchRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
 import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UserSearchResult;
+import com.blueocn.SpringSecurityJWT.data.entity.change.UserChangeType;
 import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
 import com.blueocn.SpringSecurityJWT.data.repository.UserRepository;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditEventType;
+import com.blueocn.SpringSecurityJWT.service.audit.AuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +17,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
@@ -26,6 +33,10 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserVersionCache userVersionCache;
+    private final UserChangeLog userChangeLog;
+    private final AuditService auditService;
+    private final UserSearchIndex userSearchIndex;
 
     @Autowired
     private JWTService jwtService;
@@ -34,18 +45,42 @@ public class UserService {
     AuthenticationManager authenticationManager;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       UserVersionCache userVersionCache, UserChangeLog userChangeLog, AuditService auditService,
+                       UserSearchIndex userSearchIndex) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userVersionCache = userVersionCache;
+        this.userChangeLog = userChangeLog;
+        this.auditService = auditService;
+        this.userSearchIndex = userSearchIndex;
     }
 
+    @Transactional(readOnly = true)
     public List<UserEntity> getUsers() {
         LOGGER.debug("Fetching all users");
         List<UserEntity> users = userRepository.findAll();
-        LOGGER.info("Retrieved {} users from the database", users.size());
+        LOGGER.debug("Retrieved {} users from the database", users.size());
         return users;
     }
 
+    /**
+     * Served entirely from {@link UserSearchIndex}; no database access.
+     */
+    public UserSearchResult searchUsers(String prefix, String role, Boolean enabled, String cursor, int limit) {
+        return userSearchIndex.search(prefix, role, enabled, cursor, limit);
+    }
+
+    /**
+     * ETag of the whole user list. Read it before {@link #getUsers()} so a concurrent
+     * write can only make the tag older than the list, never newer.
+     */
+    @Transactional(readOnly = true)
+    public String getUsersETag() {
+        return UserVersionCache.listETag(userChangeLog.latestChangeId());
+    }
+
+    @Transactional
     public UserEntity registerUser(RegisterRequest request) {
         LOGGER.debug("Attempting to register user: {}", request.getUsername());
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -59,10 +94,14 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(request.getPassword())); // Hash password
         user.setEnabled(true);
         UserEntity savedUser = userRepository.save(user);
-        LOGGER.info("User '{}' successfully registered", savedUser.getUsername());
+        userChangeLog.append(savedUser.getUsername(), UserChangeType.REGISTERED);
+        userVersionCache.registered(savedUser);
+        userSearchIndex.userSaved(null, savedUser.getUsername(), savedUser.isEnabled());
+        auditService.publishAfterCommit(AuditEventType.REGISTER, savedUser.getUsername(), "user");
         return savedUser;
     }
 
+    @Transactional
     public UserEntity updateUser(String username, UpdateRequest request) {
         LOGGER.debug("Attempting to update user: {}", username);
         return userRepository.findByUsername(username)
@@ -71,8 +110,16 @@ public class UserService {
                     userEntity.setPassword(passwordEncoder.encode(request.getPassword()));
                     userEntity.setEnabled(request.getEnabled());
 
-                    UserEntity updatedUser = userRepository.save(userEntity);
-                    LOGGER.info("User '{}' successfully updated", updatedUser.getUsername());
+                    // Flush so the version bump is visible before the ETag is recorded
+                    UserEntity updatedUser = userRepository.saveAndFlush(userEntity);
+                    userChangeLog.append(username, UserChangeType.UPDATED);
+                    if (!username.equals(updatedUser.getUsername())) {
+                        userChangeLog.append(updatedUser.getUsername(), UserChangeType.UPDATED);
+                    }
+                    userVersionCache.updated(username, updatedUser);
+                    userSearchIndex.userSaved(username, updatedUser.getUsername(), updatedUser.isEnabled());
+                    auditService.publishAfterCommit(AuditEventType.UPDATE, username,
+                            "user username=" + updatedUser.getUsername() + " enabled=" + updatedUser.isEnabled());
                     return updatedUser;
                 }).orElseThrow(() -> {
                     LOGGER.error("User '{}' not found for update", username);
@@ -80,6 +127,55 @@ public class UserService {
                 });
     }
 
+    /**
+     * Applies only the fields present in the patch. The password is only rehashed when
+     * one is supplied, and nothing is written when no field actually changes.
+     */
+    @Transactional
+    public UserEntity patchUser(String username, PatchRequest patch) {
+        LOGGER.debug("Attempting to patch user: {}", username);
+        UserEntity user = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    LOGGER.error("User '{}' not found for patch", username);
+                    return new IllegalArgumentException("User not found");
+                });
+
+        boolean changed = false;
+        if (patch.getUsername() != null && !patch.getUsername().equals(user.getUsername())) {
+            if (userRepository.findByUsername(patch.getUsername()).isPresent()) {
+                LOGGER.warn("Patch failed - username '{}' is already taken", patch.getUsername());
+                throw new IllegalArgumentException("Username is already taken.");
+            }
+            user.setUsername(patch.getUsername());
+            changed = true;
+        }
+        if (patch.getPassword() != null) {
+            user.setPassword(passwordEncoder.encode(patch.getPassword()));
+            changed = true;
+        }
+        if (patch.getEnabled() != null && patch.getEnabled() != user.isEnabled()) {
+            user.setEnabled(patch.getEnabled());
+            changed = true;
+        }
+        if (!changed) {
+            return user;
+        }
+
+        // Flush so the version bump is visible before the ETag is recorded
+        UserEntity patchedUser = userRepository.saveAndFlush(user);
+        userChangeLog.append(username, UserChangeType.UPDATED);
+        if (!username.equals(patchedUser.getUsername())) {
+            userChangeLog.append(patchedUser.getUsername(), UserChangeType.UPDATED);
+        }
+        userVersionCache.updated(username, patchedUser);
+        userSearchIndex.userSaved(username, patchedUser.getUsername(), patchedUser.isEnabled());
+        auditService.publishAfterCommit(AuditEventType.UPDATE, username,
+                "user username=" + patchedUser.getUsername() + " enabled=" + patchedUser.isEnabled()
+                        + (patch.getPassword() != null ? " password=changed" : ""));
+        return patchedUser;
+    }
+
+    @Transactional
     public void deleteUser(String username) {
         LOGGER.debug("Attempting to delete user: {}", username);
         UserEntity user = userRepository.findByUsername(username)
@@ -88,30 +184,42 @@ public class UserService {
                     return new IllegalArgumentException("User not found");
                 });
         userRepository.delete(user);
-        LOGGER.info("User '{}' successfully deleted", username);
+        userChangeLog.append(username, UserChangeType.DELETED);
+        userVersionCache.deleted(user);
+        userSearchIndex.userDeleted(username);
+        auditService.publishAfterCommit(AuditEventType.DELETE, username, "user");
     }
 
+    @Transactional(readOnly = true)
     public UserEntity getUserByUsername(String username) {
         LOGGER.debug("Fetching user by username: {}", username);
-        return userRepository.findByUsername(username)
+        UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
                     LOGGER.warn("User '{}' not found", username);
                     return new IllegalArgumentException("User not found");
                 });
-
+        userVersionCache.record(user);
+        return user;
     }
 
     public ResponseEntity<String> verify(AuthRequest request) {
 
-        Authentication authentication =
-                authenticationManager
-                        .authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager
+                    .authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+        } catch (AuthenticationException e) {
+            auditService.publish(AuditEventType.LOGIN_FAILURE, request.getUsername(), request.getUsername(), e.getClass().getSimpleName());
+            throw e;
+        }
 
         if (authentication.isAuthenticated()){
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            auditService.publish(AuditEventType.LOGIN_SUCCESS, userDetails.getUsername(), userDetails.getUsername(), null);
             return ResponseEntity.ok(jwtService.generateToken(userDetails));
         }
 
+        auditService.publish(AuditEventType.LOGIN_FAILURE, request.getUsername(), request.getUsername(), "not authenticated");
         return ResponseEntity.badRequest().body("Failed");
     }
 }
\ No newline at end of file
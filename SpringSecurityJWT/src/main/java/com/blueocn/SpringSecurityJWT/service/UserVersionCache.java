@@ -0,0 +1,116 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.config.ReplicaRoutingDataSource;
+import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps the last known ETag of every recently served user, so conditional GETs of
+ * {@code /users/me} can be answered with {@code 304 Not Modified} before touching
+ * the database. Writes are applied after their transaction commits, and an entry
+ * never moves back to an older version, so a read that raced a write (or came from
+ * a lagging replica) cannot reinstate a stale ETag.
+ */
+@Component
+public class UserVersionCache implements UserChangeListener {
+
+    private final Cache<String, Entry> userETags;
+
+    public UserVersionCache(@Value("${users.etag.cache.max-size:10000}") long maxSize,
+                            @Value("${users.etag.cache.ttl:PT10M}") Duration ttl) {
+        this.userETags = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static String eTagOf(UserEntity user) {
+        return "\"" + user.getId() + "-" + user.getVersion() + "\"";
+    }
+
+    /**
+     * The user list changes exactly when a row is appended to {@code user_changes},
+     * so its latest id identifies the list on every node alike.
+     */
+    public static String listETag(long latestChangeId) {
+        return "\"users-" + latestChangeId + "\"";
+    }
+
+    public Optional<String> cachedETag(String username) {
+        Entry entry = userETags.getIfPresent(username);
+        return entry == null || entry.deleted() ? Optional.empty() : Optional.of(entry.eTag());
+    }
+
+    public void record(UserEntity user) {
+        if (ReplicaRoutingDataSource.isReadingFromReplica()) {
+            // A lagging replica's version would be answered with 304s long after the primary moved on
+            return;
+        }
+        store(user.getUsername(), new Entry(user.getId(), user.getVersion(), false, eTagOf(user)));
+    }
+
+    public void updated(String previousUsername, UserEntity user) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (!previousUsername.equals(user.getUsername())) {
+                userETags.invalidate(previousUsername);
+            }
+            record(user);
+        });
+    }
+
+    public void registered(UserEntity user) {
+        TransactionCallbacks.afterCommit(() -> record(user));
+    }
+
+    public void deleted(UserEntity user) {
+        // A tombstone rather than a removal, so a concurrent read of the old row cannot put it back
+        TransactionCallbacks.afterCommit(() ->
+                store(user.getUsername(), new Entry(user.getId(), Long.MAX_VALUE, true, null)));
+    }
+
+    @Override
+    public void onUserChanges(Set<String> usernames) {
+        userETags.invalidateAll(usernames);
+    }
+
+    private void store(String username, Entry entry) {
+        userETags.asMap().merge(username, entry, (current, candidate) -> candidate.supersedes(current) ? candidate : current);
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match} (RFC 9110 §13.1.2).
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry(long id, long version, boolean deleted, String eTag) {
+
+        // Ids only grow, so a re-registered username always replaces its predecessor
+        boolean supersedes(Entry current) {
+            return id > current.id || (id == current.id && version >= current.version);
+        }
+    }
+}
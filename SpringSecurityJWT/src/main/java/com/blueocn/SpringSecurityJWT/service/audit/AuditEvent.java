@@ -0,0 +1,10 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import java.time.Instant;
+
+/**
+ * One audited operation. {@code actor} is who performed it, {@code subject} the
+ * account it targeted; either may be {@code null} when unknown.
+ */
+public record AuditEvent(AuditEventType type, String actor, String subject, String detail, Instant occurredAt) {
+}
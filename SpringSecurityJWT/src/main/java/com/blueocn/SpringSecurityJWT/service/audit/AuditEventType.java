@@ -0,0 +1,10 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+public enum AuditEventType {
+    REGISTER,
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    UPDATE,
+    DELETE,
+    TOKEN_REJECTED
+}
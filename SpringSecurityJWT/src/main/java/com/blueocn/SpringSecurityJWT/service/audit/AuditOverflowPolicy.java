@@ -0,0 +1,11 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+/**
+ * What a publisher does when the audit buffer is full.
+ */
+public enum AuditOverflowPolicy {
+    /** Discard the event and count it; the request never waits. */
+    DROP,
+    /** Wait for the writer to free a slot; no event is lost. */
+    BLOCK
+}
@@ -0,0 +1,181 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import com.blueocn.SpringSecurityJWT.service.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records who changed what without putting I/O on the request path. Publishing
+ * only places an {@link AuditEvent} in a lock-free ring buffer; a single background
+ * thread drains it in batches into the configured {@link AuditWriter}.
+ */
+@Service
+public class AuditService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditService.class);
+
+    // Widths of the audit_events columns; one oversized value would fail its whole batch
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DETAIL_LENGTH = 1024;
+
+    private final AuditWriter auditWriter;
+    private final AuditRingBuffer buffer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final long blockTimeoutNanos;
+
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer batchWrite;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public AuditService(AuditWriter auditWriter,
+                        MeterRegistry meterRegistry,
+                        @Value("${audit.buffer.capacity:8192}") int capacity,
+                        @Value("${audit.buffer.overflow:DROP}") AuditOverflowPolicy overflowPolicy,
+                        @Value("${audit.batch.size:256}") int batchSize,
+                        @Value("${audit.batch.idle-wait:PT0.05S}") Duration idleWait,
+                        @Value("${audit.buffer.block-timeout:PT1S}") Duration blockTimeout) {
+        this.auditWriter = auditWriter;
+        this.buffer = new AuditRingBuffer(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.idleParkNanos = idleWait.toNanos();
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+
+        this.published = meterRegistry.counter("audit.events.published");
+        this.dropped = meterRegistry.counter("audit.events.dropped");
+        this.written = meterRegistry.counter("audit.events.written");
+        this.failed = meterRegistry.counter("audit.events.failed");
+        this.batchWrite = meterRegistry.timer("audit.batch.write");
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+    }
+
+    public void publish(AuditEventType type, String subject, String detail) {
+        publish(type, currentActor(), subject, detail);
+    }
+
+    /**
+     * Publishes once the surrounding transaction commits, so a write that is rolled
+     * back is never audited as if it had happened.
+     */
+    public void publishAfterCommit(AuditEventType type, String subject, String detail) {
+        String actor = currentActor();
+        TransactionCallbacks.afterCommit(() -> publish(type, actor, subject, detail));
+    }
+
+    public void publish(AuditEventType type, String actor, String subject, String detail) {
+        AuditEvent event = new AuditEvent(type, truncate(actor, MAX_NAME_LENGTH), truncate(subject, MAX_NAME_LENGTH),
+                truncate(detail, MAX_DETAIL_LENGTH), Instant.now());
+        if (buffer.offer(event)) {
+            published.increment();
+            return;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.BLOCK && offerBlocking(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Waits for the writer to free a slot, but never past the block timeout and never
+     * once nothing drains the buffer any more, so request threads cannot hang on it.
+     */
+    private boolean offerBlocking(AuditEvent event) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (!buffer.offer(event)) {
+            Thread writer = writerThread;
+            if (!running || writer == null || !writer.isAlive() || System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        return true;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        LOGGER.info("Audit writer started with buffer capacity {} and {} overflow policy",
+                buffer.capacity(), overflowPolicy);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (drainOnce(batch) == 0) {
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+        // Flush whatever was published before shutdown
+        while (drainOnce(batch) > 0) {
+            // keep draining
+        }
+    }
+
+    private int drainOnce(List<AuditEvent> batch) {
+        int drained = buffer.drainTo(batch, batchSize);
+        if (drained == 0) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            auditWriter.write(batch);
+            written.increment(drained);
+        } catch (Exception e) {
+            failed.increment(drained);
+            LOGGER.error("Failed to write {} audit events", drained, e);
+        } finally {
+            batchWrite.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batch.clear();
+        }
+        return drained;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        // Never split a surrogate pair
+        int end = Character.isHighSurrogate(value.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+        return value.substring(0, end);
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
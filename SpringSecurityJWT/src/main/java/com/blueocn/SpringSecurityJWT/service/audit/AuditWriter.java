@@ -0,0 +1,12 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import java.util.List;
+
+/**
+ * Durable sink for drained audit events. Only ever called from the single audit
+ * writer thread, so implementations need not be thread-safe.
+ */
+public interface AuditWriter {
+
+    void write(List<AuditEvent> batch) throws Exception;
+}
@@ -0,0 +1,85 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each drained batch as JSON lines to a file, rolling it over to
+ * {@code <name>.1 .. <name>.N} once it grows past the size limit.
+ */
+public class FileAuditWriter implements AuditWriter {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private OutputStream out;
+    private long currentBytes;
+
+    public FileAuditWriter(ObjectMapper objectMapper, Path path, long maxBytes, int maxFiles) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) throws IOException {
+        if (out == null) {
+            open();
+        }
+        for (AuditEvent event : batch) {
+            ObjectNode node = objectMapper.createObjectNode()
+                    .put("type", event.type().name())
+                    .put("actor", event.actor())
+                    .put("subject", event.subject())
+                    .put("detail", event.detail())
+                    .put("occurredAt", event.occurredAt().toString());
+            // Encoded up front so the size limit is counted in bytes on disk, not chars
+            byte[] line = objectMapper.writeValueAsBytes(node);
+            out.write(line);
+            out.write('\n');
+            currentBytes += line.length + 1;
+        }
+        out.flush();
+        if (currentBytes >= maxBytes) {
+            rotate();
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        currentBytes = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        out = null;
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,32 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Appends each drained batch to {@code audit_events} with a single JDBC batch insert.
+ */
+public class JdbcAuditWriter implements AuditWriter {
+
+    private static final String INSERT_SQL =
+            "insert into audit_events (type, actor, subject, detail, occurred_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+            statement.setString(1, event.type().name());
+            statement.setString(2, event.actor());
+            statement.setString(3, event.subject());
+            statement.setString(4, event.detail());
+            statement.setTimestamp(5, Timestamp.from(event.occurredAt()));
+        });
+    }
+}
@@ -0,0 +1,19 @@
+-- Embedded-database twin of db/migration/mysql, using the column types Hibernate
+-- maps the entities to on H2.
+
+create table authorities (
+    id bigint generated by default as identity,
+    authority varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+);
+create index FKhjuy9y4fd8v5m3klig05ktofg on authorities (username);
+
+create table users (
+    id bigint generated by default as identity,
+    enabled boolean not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint UKr43af9ap4edm43mmtq01oddj6 unique (username)
+);
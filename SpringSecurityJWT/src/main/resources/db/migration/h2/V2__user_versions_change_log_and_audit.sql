@@ -0,0 +1,23 @@
+alter table users add column version bigint default 0 not null;
+
+create table user_changes (
+    id bigint generated by default as identity,
+    username varchar(255) not null,
+    type varchar(16) not null,
+    node_id varchar(36) not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+create index idx_user_changes_created_at on user_changes (created_at);
+
+create table audit_events (
+    id bigint generated by default as identity,
+    type varchar(32) not null,
+    actor varchar(255),
+    subject varchar(255),
+    detail varchar(1024),
+    occurred_at timestamp(6) with time zone not null,
+    primary key (id)
+);
+create index idx_audit_events_subject on audit_events (subject);
+create index idx_audit_events_occurred_at on audit_events (occurred_at);
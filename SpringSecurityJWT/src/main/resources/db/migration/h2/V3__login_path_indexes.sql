@@ -0,0 +1,5 @@
+drop index FKhjuy9y4fd8v5m3klig05ktofg;
+alter table authorities add constraint uk_authorities_username unique (username);
+
+create index idx_users_login on users (username, password, enabled, version);
+create index idx_authorities_login on authorities (username, authority);
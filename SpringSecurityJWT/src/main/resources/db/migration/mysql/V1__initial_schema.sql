@@ -0,0 +1,19 @@
+-- Schema as shipped in DB/DB_SQL_dump.sql. Databases restored from the dump are
+-- baselined at this version and only receive the migrations after it.
+
+CREATE TABLE `authorities` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `authority` varchar(255) NOT NULL,
+  `username` varchar(255) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `FKhjuy9y4fd8v5m3klig05ktofg` (`username`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE `users` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `enabled` bit(1) NOT NULL,
+  `password` varchar(255) NOT NULL,
+  `username` varchar(255) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `UKr43af9ap4edm43mmtq01oddj6` (`username`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,23 @@
+ALTER TABLE `users` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+
+CREATE TABLE `user_changes` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `username` varchar(255) NOT NULL,
+  `type` varchar(16) NOT NULL,
+  `node_id` varchar(36) NOT NULL,
+  `created_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_user_changes_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE `audit_events` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `type` varchar(32) NOT NULL,
+  `actor` varchar(255) DEFAULT NULL,
+  `subject` varchar(255) DEFAULT NULL,
+  `detail` varchar(1024) DEFAULT NULL,
+  `occurred_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_audit_events_subject` (`subject`),
+  KEY `idx_audit_events_occurred_at` (`occurred_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,10 @@
+-- AuthorityEntity maps username as unique; the dump only had the non-unique key
+-- left behind by an old foreign key.
+ALTER TABLE `authorities` DROP INDEX `FKhjuy9y4fd8v5m3klig05ktofg`;
+ALTER TABLE `authorities` ADD CONSTRAINT `uk_authorities_username` UNIQUE (`username`);
+
+-- Covering indexes for the login lookups issued by JdbcUserDetailsManager
+-- (username -> password, enabled and username -> authority) and for findByUsername,
+-- which also reads id (carried by every InnoDB secondary index) and version.
+CREATE INDEX `idx_users_login` ON `users` (`username`, `password`, `enabled`, `version`);
+CREATE INDEX `idx_authorities_login` ON `authorities` (`username`, `authority`);
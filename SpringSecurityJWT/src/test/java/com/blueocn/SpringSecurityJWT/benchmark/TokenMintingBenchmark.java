@@ -0,0 +1,79 @@
+package com.blueocn.SpringSecurityJWT.benchmark;
+
+import com.blueocn.SpringSecurityJWT.service.TokenMinter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Login-path token minting: the jjwt builder as JWTService used it, against
+ * {@link TokenMinter}. Run with the benchmark profile to get allocation per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenMintingBenchmark {
+
+    private static final String SECRET = "PShLxj1WKRB1+DksRmlXNLHYf/AWQl5Gl2ZNQLx1368=";
+    private static final long EXPIRATION = 3_600_000;
+
+    private UserDetails user;
+    private TokenMinter minter;
+
+    @Setup
+    public void setUp() {
+        user = User.withUsername("service-account-42").password("unused").roles("USER", "ADMIN").build();
+        minter = new TokenMinter(key(), EXPIRATION, Clock.systemUTC(), 1024);
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+
+        return Jwts.builder()
+                .claims()
+                .add(claims)
+                .subject(user.getUsername())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .and()
+                .signWith(key(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String tokenMinter() {
+        return minter.mint(user.getUsername(), user.getAuthorities());
+    }
+
+    private static SecretKey key() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
@@ -0,0 +1,84 @@
+package com.blueocn.SpringSecurityJWT.benchmark;
+
+import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of encoding and decoding a {@code GET /users} page of 10k users in each
+ * negotiable format. The payload size of each format is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListFormatBenchmark {
+
+    private static final TypeReference<List<UserEntity>> USER_LIST = new TypeReference<>() {};
+
+    // Same shape as the BCrypt hashes stored by UserService
+    private static final String PASSWORD_HASH = "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW";
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private List<UserEntity> userList;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+
+        userList = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserEntity user = new UserEntity(PASSWORD_HASH, "user-" + i + "@example.com");
+            user.setId((long) i + 1);
+            user.setVersion(i % 5);
+            user.setEnabled(i % 10 != 0);
+            userList.add(user);
+        }
+
+        payload = mapper.writeValueAsBytes(userList);
+        System.out.printf("%n%s payload for %d users: %d bytes%n", format, users, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(userList);
+    }
+
+    @Benchmark
+    public List<UserEntity> deserialize() throws IOException {
+        return mapper.readValue(payload, USER_LIST);
+    }
+}
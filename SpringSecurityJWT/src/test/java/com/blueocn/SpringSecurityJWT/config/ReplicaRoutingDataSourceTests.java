@@ -0,0 +1,160 @@
+package com.blueocn.SpringSecurityJWT.config;
+
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.service.UserChangeListener;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import com.blueocn.SpringSecurityJWT.service.UserVersionCache;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two embedded databases stand in for the primary and the replica. Replication is
+ * deliberately absent, so the database a query reaches is visible from its result.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingDataSourceTests.PRIMARY_URL,
+        "spring.datasource.replica.url=" + ReplicaRoutingDataSourceTests.REPLICA_URL,
+        "spring.datasource.replica.sticky-window=PT1M",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.datasource.replica.hikari.maximum-pool-size=3"
+})
+class ReplicaRoutingDataSourceTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate primaryJdbc = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    @Autowired
+    private List<UserChangeListener> userChangeListeners;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyLookupsAreServedByTheReplica() {
+        // An id the primary will never hand out, since the unreplicated databases would otherwise reuse it
+        replicaJdbc.update("insert into users (id, enabled, password, username, version) values (1000000, true, 'x', 'replica-only', 0)");
+
+        assertEquals("replica-only", userService.getUserByUsername("replica-only").getUsername());
+        assertEquals(0, count(primaryJdbc, "replica-only"));
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        register("written-user");
+
+        assertEquals(1, count(primaryJdbc, "written-user"));
+        assertEquals(0, count(replicaJdbc, "written-user"));
+        assertThrows(IllegalArgumentException.class, () -> userService.getUserByUsername("written-user"));
+    }
+
+    @Test
+    void readsStickToThePrimaryAfterTheCallersOwnWrite() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("sticky-admin", null));
+        register("sticky-user");
+
+        assertEquals("sticky-user", userService.getUserByUsername("sticky-user").getUsername());
+    }
+
+    @Test
+    void laggingReplicaReadsAreNotCachedAfterAnInvalidation() {
+        register("lagging-user");
+        Long id = primaryJdbc.queryForObject("select id from users where username = ?", Long.class, "lagging-user");
+
+        // Another node disables the user, and the replica has only seen the registration so far
+        primaryJdbc.update("update users set enabled = false, version = 1 where id = ?", id);
+        replicaJdbc.update("insert into users (id, enabled, password, username, version) values (?, true, 'x', 'lagging-user', 0)", id);
+        userChangeListeners.forEach(listener -> listener.onUserChanges(Set.of("lagging-user")));
+
+        assertTrue(userService.getUserByUsername("lagging-user").isEnabled());
+        assertTrue(userVersionCache.cachedETag("lagging-user").isEmpty());
+
+        // Once the replica catches up, the next read must reach it rather than a cached stale row
+        replicaJdbc.update("update users set enabled = false, version = 1 where id = ?", id);
+        assertFalse(userService.getUserByUsername("lagging-user").isEnabled());
+    }
+
+    @Test
+    void eachPoolTakesItsOwnHikariSettings() {
+        assertEquals(7, primaryDataSource.getMaximumPoolSize());
+        assertEquals(3, replicaDataSource.getMaximumPoolSize());
+        assertEquals(1000, replicaDataSource.getConnectionTimeout());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() throws Exception {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new DriverManagerDataSource(PRIMARY_URL, "sa", ""),
+                new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/missing", "sa", ""),
+                Duration.ZERO);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            assertTrue(connection.getMetaData().getURL().startsWith("jdbc:h2:mem:primary"));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        assertFalse(routing.isReplicaHealthy());
+    }
+
+    private void register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        userService.registerUser(request);
+    }
+
+    private static int count(JdbcTemplate jdbc, String username) {
+        Integer count = jdbc.queryForObject("select count(*) from users where username = ?", Integer.class, username);
+        return count == null ? 0 : count;
+    }
+}
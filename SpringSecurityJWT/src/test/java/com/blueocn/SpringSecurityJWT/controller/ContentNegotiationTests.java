@@ -0,0 +1,132 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.config.BinaryFormatConfig;
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.service.AuthorityService;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContentNegotiationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Test
+    @WithMockUser(username = "format-user", roles = "USER")
+    void jsonIsTheDefault() throws Exception {
+        register("format-user");
+
+        mockMvc.perform(get("/users/me"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept"))
+                .andExpect(jsonPath("$.username").value("format-user"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userListCanBeRequestedAsCbor() throws Exception {
+        register("cbor-user");
+
+        byte[] body = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode users = new CBORMapper().readTree(body);
+        assertTrue(users.isArray());
+        assertTrue(users.findValuesAsText("username").contains("cbor-user"));
+    }
+
+    @Test
+    @WithMockUser(username = "tagged-user", roles = "USER")
+    void eachFormatHasItsOwnETag() throws Exception {
+        register("tagged-user");
+        String jsonETag = mockMvc.perform(get("/users/me"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A cache revalidating its JSON copy must not be told the CBOR variant is unchanged
+        String cborETag = mockMvc.perform(get("/users/me")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(jsonETag.replaceFirst("\"$", "+cbor\""), cborETag);
+
+        mockMvc.perform(get("/users/me")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag + ", " + cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, cborETag));
+        mockMvc.perform(get("/users/me")
+                        .accept(BinaryFormatConfig.APPLICATION_SMILE_VALUE)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag + ", " + cborETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_SMILE_VALUE));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void listETagFollowsTheNegotiatedFormat() throws Exception {
+        mockMvc.perform(get("/users").header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"users-\\d+\"")));
+        mockMvc.perform(get("/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"users-\\d+\\+cbor\"")));
+    }
+
+    @Test
+    void validationErrorsFollowTheRequestedFormat() throws Exception {
+        byte[] body = mockMvc.perform(post("/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(BinaryFormatConfig.APPLICATION_SMILE_VALUE)
+                        .content("{\"username\":\"\",\"password\":\"short\",\"authority\":\"ROLE_USER\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode errors = new SmileMapper().readTree(body);
+        assertEquals("Password must be at least 8 characters", errors.get("password").asText());
+        assertTrue(errors.has("username"));
+    }
+
+    private void register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        userService.registerUser(request);
+        authorityService.registerAuthority(request);
+    }
+}
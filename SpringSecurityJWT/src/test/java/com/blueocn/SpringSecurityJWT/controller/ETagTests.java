@@ -0,0 +1,170 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.data.dto.PatchRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
+import com.blueocn.SpringSecurityJWT.service.AuthorityService;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import com.blueocn.SpringSecurityJWT.service.UserVersionCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ETagTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @WithMockUser(username = "etag-me", roles = "USER")
+    void currentUserIsNotModifiedWithoutTouchingTheRepository() throws Exception {
+        register("etag-me");
+        String eTag = currentUserETag();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/users/me").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept"))
+                .andExpect(content().string(""));
+
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getNaturalIdCacheHitCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @WithMockUser(username = "etag-updated", roles = "ADMIN")
+    void currentUserIsServedAgainAfterAnUpdate() throws Exception {
+        register("etag-updated");
+        String eTag = currentUserETag();
+
+        mockMvc.perform(patch("/users/etag-updated")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"enabled\":false}"))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/users/me").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    @WithMockUser(username = "etag-weak", roles = "USER")
+    void weakWildcardAndListedTagsMatch() throws Exception {
+        register("etag-weak");
+        String eTag = currentUserETag();
+
+        for (String ifNoneMatch : new String[]{"W/" + eTag, "*", "\"other\", " + eTag}) {
+            mockMvc.perform(get("/users/me").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified());
+        }
+        mockMvc.perform(get("/users/me").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userListIsNotModifiedUntilAUserIsRegistered() throws Exception {
+        register("etag-list-1");
+        String eTag = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        register("etag-list-2");
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void staleReadsNeverReplaceANewerETag() {
+        register("etag-raced");
+        UserEntity stale = userService.getUserByUsername("etag-raced");
+
+        PatchRequest disable = new PatchRequest();
+        disable.setEnabled(false);
+        UserEntity updated = userService.patchUser("etag-raced", disable);
+
+        // A read that loaded the row before the update only records it afterwards
+        userVersionCache.record(stale);
+        assertEquals(UserVersionCache.eTagOf(updated), userVersionCache.cachedETag("etag-raced").orElseThrow());
+    }
+
+    @Test
+    void rolledBackWritesLeaveTheCacheAloneAndDeletesStickAroundStaleReads() {
+        register("etag-rollback");
+        UserEntity beforeDelete = userService.getUserByUsername("etag-rollback");
+        String eTag = UserVersionCache.eTagOf(beforeDelete);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.deleteUser("etag-rollback");
+            status.setRollbackOnly();
+        });
+        assertEquals(eTag, userVersionCache.cachedETag("etag-rollback").orElseThrow());
+
+        userService.deleteUser("etag-rollback");
+        userVersionCache.record(beforeDelete);
+        assertTrue(userVersionCache.cachedETag("etag-rollback").isEmpty());
+    }
+
+    private String currentUserETag() throws Exception {
+        String eTag = mockMvc.perform(get("/users/me"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(eTag != null && eTag.startsWith("\""));
+        return eTag;
+    }
+
+    private UserEntity register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        UserEntity user = userService.registerUser(request);
+        authorityService.registerAuthority(request);
+        return user;
+    }
+}
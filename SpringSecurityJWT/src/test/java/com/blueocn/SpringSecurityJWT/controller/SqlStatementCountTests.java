@@ -0,0 +1,193 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.service.AuthorityService;
+import com.blueocn.SpringSecurityJWT.service.JWTService;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SELECTs on the hot paths, and checks that the ones keyed by
+ * username are answered from an index rather than a table scan.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementCountTests {
+
+    // Only statements prepared on the test thread are recorded, so the audit writer is ignored
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capturing(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource capturing(DataSource target) {
+            return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                    new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection connection ? capturing(connection) : result;
+                    });
+        }
+
+        private static Connection capturing(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        List<String> statements = STATEMENTS.get();
+                        if (statements != null && method.getName().equals("prepareStatement")) {
+                            statements.add((String) args[0]);
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void startCapture() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    @AfterEach
+    void stopCapture() {
+        STATEMENTS.remove();
+    }
+
+    @Test
+    void loginIssuesOneIndexedSelectPerTable() throws Exception {
+        register("sql-login-user", "ROLE_USER");
+        STATEMENTS.get().clear();
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"sql-login-user\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk());
+
+        List<String> selects = selects();
+        assertEquals(2, selects.size(), selects::toString);
+        selects.forEach(sql -> assertUsesIndex(sql, "sql-login-user"));
+    }
+
+    @Test
+    void currentUserIssuesAtMostOneIndexedSelect() throws Exception {
+        register("sql-me-user", "ROLE_USER");
+        STATEMENTS.get().clear();
+
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, bearer("sql-me-user", "USER")))
+                .andExpect(status().isOk());
+
+        List<String> selects = selects();
+        assertTrue(selects.size() <= 1, selects::toString);
+        selects.forEach(sql -> assertUsesIndex(sql, "sql-me-user"));
+    }
+
+    @Test
+    void listingUsersIssuesAFixedNumberOfSelectsWhateverTheRowCount() throws Exception {
+        register("sql-list-user-1", "ROLE_USER");
+        int fewUsers = countSelectsForUserList();
+
+        for (int i = 2; i <= 10; i++) {
+            register("sql-list-user-" + i, "ROLE_USER");
+        }
+        int manyUsers = countSelectsForUserList();
+
+        // One for the list ETag, one for the list itself
+        assertEquals(2, fewUsers);
+        assertEquals(fewUsers, manyUsers);
+    }
+
+    private int countSelectsForUserList() throws Exception {
+        STATEMENTS.get().clear();
+        mockMvc.perform(get("/users").header(HttpHeaders.AUTHORIZATION, bearer("sql-admin", "ADMIN")))
+                .andExpect(status().isOk());
+        return selects().size();
+    }
+
+    private void assertUsesIndex(String sql, String username) {
+        // Natural-id resolution selects by username, the entity load that follows selects by id
+        String key = sql.contains(".id=?") ? "0" : "'" + username + "'";
+        String explain = "explain " + sql.replace("?", key);
+        String plan = String.join("\n", new JdbcTemplate(dataSource).queryForList(explain, String.class));
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    private List<String> selects() {
+        return STATEMENTS.get().stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+    }
+
+    private String bearer(String username, String role) {
+        return "Bearer " + jwtService.generateToken(User.withUsername(username)
+                .password("unused")
+                .roles(role)
+                .build());
+    }
+
+    private void register(String username, String authority) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority(authority);
+        userService.registerUser(request);
+        authorityService.registerAuthority(request);
+    }
+}
@@ -0,0 +1,91 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.service.JWTService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void introspectsEveryTokenInRequestOrder() throws Exception {
+        String token = jwtService.generateToken(User.withUsername("gateway-user")
+                .password("unused")
+                .roles("USER")
+                .build());
+        int signatureChar = token.lastIndexOf('.') + 5;
+        String tampered = token.substring(0, signatureChar)
+                + (token.charAt(signatureChar) == 'A' ? 'B' : 'A')
+                + token.substring(signatureChar + 1);
+
+        mockMvc.perform(post("/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"" + token + "\",\"not-a-jwt\",\"" + tampered + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].active").value(true))
+                .andExpect(jsonPath("$[0].sub").value("gateway-user"))
+                .andExpect(jsonPath("$[0].roles[0]").value("ROLE_USER"))
+                .andExpect(jsonPath("$[0].exp").isNumber())
+                .andExpect(jsonPath("$[1].active").value(false))
+                .andExpect(jsonPath("$[1].error").value("malformed"))
+                .andExpect(jsonPath("$[2].active").value(false))
+                .andExpect(jsonPath("$[2].error").value("invalid_signature"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void largeBatchesKeepRequestOrderAcrossChunks() throws Exception {
+        int size = 200;
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(i % 7 == 0 ? "not-a-jwt" : jwtService.generateToken(User.withUsername("batch-user-" + i)
+                    .password("unused")
+                    .roles("USER")
+                    .build()));
+        }
+
+        ResultActions result = mockMvc.perform(post("/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"" + String.join("\",\"", tokens) + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(size));
+        for (int i = 0; i < size; i++) {
+            if (i % 7 == 0) {
+                result.andExpect(jsonPath("$[" + i + "].active").value(false));
+            } else {
+                result.andExpect(jsonPath("$[" + i + "].sub").value("batch-user-" + i));
+            }
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void introspectionIsLimitedToAdmins() throws Exception {
+        mockMvc.perform(post("/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"not-a-jwt\"]}"))
+                .andExpect(status().isForbidden());
+    }
+}
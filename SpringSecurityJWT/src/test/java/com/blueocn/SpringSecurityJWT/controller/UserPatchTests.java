@@ -0,0 +1,144 @@
+package com.blueocn.SpringSecurityJWT.controller;
+
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.data.entity.authority.AuthorityEntity;
+import com.blueocn.SpringSecurityJWT.data.entity.user.UserEntity;
+import com.blueocn.SpringSecurityJWT.service.AuthorityService;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserPatchTests {
+
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void togglingEnabledSkipsRehashAndAuthorityWrite() throws Exception {
+        UserEntity before = register("toggled-user");
+
+        patchUser("toggled-user", "{\"enabled\":false}").andExpect(status().isOk());
+
+        UserEntity after = userService.getUserByUsername("toggled-user");
+        assertFalse(after.isEnabled());
+        assertEquals(before.getPassword(), after.getPassword());
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        verify(passwordEncoder, never()).encode(any());
+        assertEquals(1, updates(UserEntity.class));
+        assertEquals(0, updates(AuthorityEntity.class));
+    }
+
+    @Test
+    void suppliedPasswordIsRehashed() throws Exception {
+        UserEntity before = register("rehashed-user");
+
+        patchUser("rehashed-user", "{\"password\":\"another-password\"}").andExpect(status().isOk());
+
+        UserEntity after = userService.getUserByUsername("rehashed-user");
+        assertNotEquals(before.getPassword(), after.getPassword());
+        assertTrue(passwordEncoder.matches("another-password", after.getPassword()));
+        assertTrue(after.isEnabled());
+        assertEquals(0, updates(AuthorityEntity.class));
+    }
+
+    @Test
+    void roleChangeOnlyTouchesTheAuthorityRow() throws Exception {
+        UserEntity before = register("promoted-user");
+
+        patchUser("promoted-user", "{\"role\":\"ROLE_ADMIN\"}").andExpect(status().isOk());
+
+        assertEquals("ROLE_ADMIN", authorityService.getAuthorityByUsername("promoted-user").getAuthority());
+        assertEquals(before.getVersion(), userService.getUserByUsername("promoted-user").getVersion());
+        verify(passwordEncoder, never()).encode(any());
+        assertEquals(0, updates(UserEntity.class));
+        assertEquals(1, updates(AuthorityEntity.class));
+    }
+
+    @Test
+    void unchangedValuesWriteNothing() throws Exception {
+        register("unchanged-user");
+
+        patchUser("unchanged-user", "{\"enabled\":true,\"role\":\"ROLE_USER\",\"username\":\"unchanged-user\"}")
+                .andExpect(status().isOk());
+
+        assertEquals(0, updates(UserEntity.class));
+        assertEquals(0, updates(AuthorityEntity.class));
+    }
+
+    @Test
+    void removingARequiredFieldIsRejected() throws Exception {
+        register("null-patched-user");
+
+        patchUser("null-patched-user", "{\"enabled\":null}").andExpect(status().isBadRequest());
+        patchUser("null-patched-user", "{\"password\":\"short\"}").andExpect(status().isBadRequest());
+
+        assertTrue(userService.getUserByUsername("null-patched-user").isEnabled());
+    }
+
+    private ResultActions patchUser(String username, String body) throws Exception {
+        clearInvocations(passwordEncoder);
+        statistics.clear();
+        return mockMvc.perform(patch("/users/{username}", username).contentType(MERGE_PATCH).content(body));
+    }
+
+    private long updates(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getUpdateCount();
+    }
+
+    private UserEntity register(String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        UserEntity user = userService.registerUser(request);
+        authorityService.registerAuthority(request);
+        return user;
+    }
+}
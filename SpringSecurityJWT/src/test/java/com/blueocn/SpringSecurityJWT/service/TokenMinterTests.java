@@ -0,0 +1,83 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.TokenVerifier.KeySource;
+import com.blueocn.TokenVerifier.TokenVerifier;
+import com.blueocn.TokenVerifier.VerificationResult;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plain-Java harness: the minter is checked against the jjwt builder it replaced.
+ */
+class TokenMinterTests {
+
+    private static final Instant NOW = Instant.parse("2025-06-24T20:00:00.750Z");
+    private static final long EXPIRATION = 3_600_000;
+
+    private final SecretKey key = Jwts.SIG.HS256.key().build();
+    private final TokenMinter minter = new TokenMinter(key, EXPIRATION, Clock.fixed(NOW, ZoneOffset.UTC), 16);
+    private final TokenVerifier verifier = TokenVerifier.builder()
+            .keySource(KeySource.of(key))
+            .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+            .build();
+
+    @Test
+    void mintsTheSameTokenAsTheJjwtBuilder() {
+        UserDetails user = User.withUsername("user1").password("unused").roles("ADMIN", "USER").build();
+
+        // Twice, so the second token comes from the cached roles fragment and reused buffers
+        assertEquals(builderToken(user), minter.mint(user.getUsername(), user.getAuthorities()));
+        assertEquals(builderToken(user), minter.mint(user.getUsername(), user.getAuthorities()));
+    }
+
+    @Test
+    void escapesSubjectsTheVerifierReadsBack() {
+        String subject = "quote\" back\\slash\nnew-line tab\t é € 😀";
+        List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+        VerificationResult result = verifier.verify(minter.mint(subject, roles));
+
+        assertTrue(result.isValid());
+        assertEquals(subject, result.subject());
+        assertEquals(List.of("ROLE_USER"), result.roles());
+    }
+
+    @Test
+    void issuedAtAndExpiryComeFromOneClockReading() {
+        String token = minter.mint("user1", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        Map<String, Object> claims = Jwts.parser().verifyWith(key)
+                .clock(() -> Date.from(NOW))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        assertEquals(NOW.getEpochSecond(), ((Number) claims.get("iat")).longValue());
+        assertEquals(NOW.plusMillis(EXPIRATION).getEpochSecond(), ((Number) claims.get("exp")).longValue());
+    }
+
+    private String builderToken(UserDetails user) {
+        return Jwts.builder()
+                .claims()
+                .add(Map.of("roles", user.getAuthorities().stream().map(a -> a.getAuthority()).toList()))
+                .subject(user.getUsername())
+                .issuedAt(Date.from(NOW))
+                .expiration(Date.from(NOW.plusMillis(EXPIRATION)))
+                .and()
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+}
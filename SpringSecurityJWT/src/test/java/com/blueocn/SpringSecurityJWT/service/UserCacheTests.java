@@ -0,0 +1,80 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserCacheTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedLookupsByUsernameIssueNoSql() {
+        register("cached-user", "ROLE_USER");
+
+        // Warm the natural-id and entity regions
+        userService.getUserByUsername("cached-user");
+        authorityService.getAuthorityByUsername("cached-user");
+
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            userService.getUserByUsername("cached-user");
+            authorityService.getAuthorityByUsername("cached-user");
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 10);
+    }
+
+    @Test
+    void updatesThroughServicesInvalidateCachedLookups() {
+        register("stale-user", "ROLE_USER");
+        userService.getUserByUsername("stale-user");
+        authorityService.getAuthorityByUsername("stale-user");
+
+        UpdateRequest request = new UpdateRequest();
+        request.setUsername("stale-user");
+        request.setPassword("new-password");
+        request.setRole("ROLE_ADMIN");
+        request.setEnabled(false);
+        userService.updateUser("stale-user", request);
+        authorityService.updateAuthority("stale-user", request);
+
+        assertFalse(userService.getUserByUsername("stale-user").isEnabled());
+        assertEquals("ROLE_ADMIN", authorityService.getAuthorityByUsername("stale-user").getAuthority());
+    }
+
+    private void register(String username, String authority) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority(authority);
+        userService.registerUser(request);
+        authorityService.registerAuthority(request);
+    }
+}
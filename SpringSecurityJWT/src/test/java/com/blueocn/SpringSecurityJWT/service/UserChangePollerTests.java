@@ -0,0 +1,122 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.SpringSecurityJwtApplication;
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances sharing one embedded database, standing in for two
+ * replicas behind a load balancer.
+ */
+class UserChangePollerTests {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(SpringSecurityJwtApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:user-changes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "users.changes.poll-interval=PT1H",
+                        "users.changes.settle-window=PT0S")
+                .run();
+    }
+
+    @Test
+    void updateOnOneNodeInvalidatesCachedUserOnTheOther() {
+        register(nodeA, "replicated-user");
+        UserChangePoller pollerOnB = nodeB.getBean(UserChangePoller.class);
+        pollerOnB.pollOnce();
+        UserService usersOnB = nodeB.getBean(UserService.class);
+        assertTrue(usersOnB.getUserByUsername("replicated-user").isEnabled());
+
+        UpdateRequest request = new UpdateRequest();
+        request.setUsername("replicated-user");
+        request.setPassword("another-password");
+        request.setRole("ROLE_USER");
+        request.setEnabled(false);
+        nodeA.getBean(UserService.class).updateUser("replicated-user", request);
+
+        // Node B still answers from its own second-level cache until it tails the log
+        assertTrue(usersOnB.getUserByUsername("replicated-user").isEnabled());
+
+        long lagSamples = nodeB.getBean(MeterRegistry.class).get("users.changes.convergence.lag").timer().count();
+        assertEquals(1, pollerOnB.pollOnce());
+        assertFalse(usersOnB.getUserByUsername("replicated-user").isEnabled());
+        assertEquals(lagSamples + 1, nodeB.getBean(MeterRegistry.class).get("users.changes.convergence.lag").timer().count());
+    }
+
+    @Test
+    void pruningKeepsTheNewestChangeSoTheListETagNeverGoesBack() {
+        register(nodeA, "pruned-user");
+        UserService users = nodeA.getBean(UserService.class);
+        String eTag = users.getUsersETag();
+
+        // Age the whole log past the retention, as after a quiet day
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        jdbc.update("update user_changes set created_at = ?", Timestamp.from(Instant.now().minus(Duration.ofDays(30))));
+        nodeA.getBean(UserChangePoller.class).prune();
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from user_changes", Integer.class));
+        assertEquals(eTag, users.getUsersETag());
+    }
+
+    @Test
+    void deleteOnOneNodeIsVisibleOnTheOtherAfterPolling() {
+        register(nodeA, "short-lived-user");
+        UserService usersOnB = nodeB.getBean(UserService.class);
+        usersOnB.getUserByUsername("short-lived-user");
+
+        nodeA.getBean(UserService.class).deleteUser("short-lived-user");
+        nodeA.getBean(AuthorityService.class).deleteAuthority("short-lived-user");
+        nodeB.getBean(UserChangePoller.class).pollOnce();
+
+        assertThrows(IllegalArgumentException.class, () -> usersOnB.getUserByUsername("short-lived-user"));
+    }
+
+    @Test
+    void nodeSkipsChangesItWroteItself() {
+        nodeA.getBean(UserChangePoller.class).pollOnce();
+        register(nodeA, "local-user");
+        assertEquals(0, nodeA.getBean(UserChangePoller.class).pollOnce());
+    }
+
+    private static void register(ConfigurableApplicationContext node, String username) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        node.getBean(UserService.class).registerUser(request);
+        node.getBean(AuthorityService.class).registerAuthority(request);
+    }
+}
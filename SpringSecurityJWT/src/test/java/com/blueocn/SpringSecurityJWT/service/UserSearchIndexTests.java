@@ -0,0 +1,141 @@
+package com.blueocn.SpringSecurityJWT.service;
+
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UpdateRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.UserSearchResult;
+import com.blueocn.SpringSecurityJWT.data.dto.UserSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserSearchIndexTests {
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthorityService authorityService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void pagesThroughPrefixMatchesInUsernameOrder() {
+        for (int i = 1; i <= 5; i++) {
+            register("paged-" + i, "ROLE_USER");
+        }
+        register("pager", "ROLE_USER");
+
+        UserSearchResult first = userSearchIndex.search("paged-", null, null, null, 2);
+        assertEquals(List.of("paged-1", "paged-2"), usernames(first));
+        UserSearchResult second = userSearchIndex.search("paged-", null, null, first.nextCursor(), 2);
+        assertEquals(List.of("paged-3", "paged-4"), usernames(second));
+        UserSearchResult last = userSearchIndex.search("paged-", null, null, second.nextCursor(), 2);
+        assertEquals(List.of("paged-5"), usernames(last));
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void filtersByRoleAndEnabledFlagAfterUpdates() {
+        register("filtered-admin", "ROLE_ADMIN");
+        register("filtered-user", "ROLE_USER");
+        register("filtered-locked", "ROLE_USER");
+
+        UpdateRequest lock = new UpdateRequest();
+        lock.setUsername("filtered-locked");
+        lock.setPassword("password123");
+        lock.setRole("ROLE_USER");
+        lock.setEnabled(false);
+        userService.updateUser("filtered-locked", lock);
+        authorityService.updateAuthority("filtered-locked", lock);
+
+        assertEquals(List.of("filtered-admin"), usernames(userSearchIndex.search("filtered-", "ROLE_ADMIN", null, null, 10)));
+        assertEquals(List.of("filtered-user"), usernames(userSearchIndex.search("filtered-", "ROLE_USER", true, null, 10)));
+        assertEquals(List.of("filtered-locked"), usernames(userSearchIndex.search("filtered-", null, false, null, 10)));
+
+        userService.deleteUser("filtered-user");
+        authorityService.deleteAuthority("filtered-user");
+        assertEquals(List.of("filtered-admin", "filtered-locked"), usernames(userSearchIndex.search("filtered-", null, null, null, 10)));
+    }
+
+    @Test
+    void rolledBackRegistrationIsNotIndexed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            register("rolled-back", "ROLE_USER");
+            status.setRollbackOnly();
+        });
+
+        assertTrue(userSearchIndex.search("rolled-back", null, null, null, 10).users().isEmpty());
+    }
+
+    @Test
+    void changesFromOtherNodesAreReloadedFromTheDatabase() {
+        jdbcTemplate.update("insert into users (username, password, enabled, version) values ('remote-user', 'x', true, 0)");
+        jdbcTemplate.update("insert into authorities (username, authority) values ('remote-user', 'ROLE_ADMIN')");
+
+        userSearchIndex.onUserChanges(Set.of("remote-user"));
+        assertEquals(List.of(new UserSummary("remote-user", "ROLE_ADMIN", true)),
+                userSearchIndex.search("remote-", null, null, null, 10).users());
+
+        jdbcTemplate.update("delete from authorities where username = 'remote-user'");
+        jdbcTemplate.update("delete from users where username = 'remote-user'");
+        userSearchIndex.onUserChanges(Set.of("remote-user"));
+        assertTrue(userSearchIndex.search("remote-", null, null, null, 10).users().isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchEndpointReturnsAPageAndCursor() throws Exception {
+        register("endpoint-1", "ROLE_USER");
+        register("endpoint-2", "ROLE_USER");
+
+        mockMvc.perform(get("/users/search").param("prefix", "endpoint-").param("role", "ROLE_USER").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("endpoint-1"))
+                .andExpect(jsonPath("$.users[0].role").value("ROLE_USER"))
+                .andExpect(jsonPath("$.users[0].enabled").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("endpoint-1"));
+
+        mockMvc.perform(get("/users/search").param("prefix", "endpoint-").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> usernames(UserSearchResult result) {
+        return result.users().stream().map(UserSummary::username).toList();
+    }
+
+    private void register(String username, String authority) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        request.setAuthority(authority);
+        userService.registerUser(request);
+        authorityService.registerAuthority(request);
+    }
+}
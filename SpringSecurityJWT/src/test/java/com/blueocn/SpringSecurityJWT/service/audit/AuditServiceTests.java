@@ -0,0 +1,257 @@
+package com.blueocn.SpringSecurityJWT.service.audit;
+
+import com.blueocn.SpringSecurityJWT.data.dto.AuthRequest;
+import com.blueocn.SpringSecurityJWT.data.dto.RegisterRequest;
+import com.blueocn.SpringSecurityJWT.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AuditServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void registrationIsWrittenToAuditEventsInTheBackground() throws InterruptedException {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("audited-user");
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        userService.registerUser(request);
+
+        assertEquals(1, awaitAuditRows("audited-user", AuditEventType.REGISTER, 1));
+    }
+
+    @Test
+    void burstsAreBatchedWithoutLosingEvents() throws InterruptedException {
+        double writtenBefore = meterRegistry.counter("audit.events.written").count();
+        for (int i = 0; i < 1000; i++) {
+            auditService.publish(AuditEventType.TOKEN_REJECTED, null, "burst-user", "test " + i);
+        }
+
+        assertEquals(1000, awaitAuditRows("burst-user", AuditEventType.TOKEN_REJECTED, 1000));
+        assertEquals(0, meterRegistry.counter("audit.events.dropped").count());
+        assertTrue(meterRegistry.counter("audit.events.written").count() - writtenBefore >= 1000);
+        assertTrue(meterRegistry.timer("audit.batch.write").count() < 1000);
+    }
+
+    @Test
+    void rolledBackRegistrationIsNotAudited() throws InterruptedException {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("rolled-back-user");
+        request.setPassword("password123");
+        request.setAuthority("ROLE_USER");
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.registerUser(request);
+            status.setRollbackOnly();
+        });
+
+        // Let a publish that slipped through reach the table before checking it never did
+        auditService.publish(AuditEventType.REGISTER, null, "rolled-back-marker", "marker");
+        awaitAuditRows("rolled-back-marker", AuditEventType.REGISTER, 1);
+        assertEquals(0, awaitAuditRows("rolled-back-user", AuditEventType.REGISTER, 0));
+    }
+
+    @Test
+    void oversizedLoginNamesAreTruncatedInsteadOfFailingTheBatch() throws InterruptedException {
+        String username = "x".repeat(300);
+        AuthRequest request = new AuthRequest();
+        request.setUsername(username);
+        request.setPassword("password123");
+        // Shares a batch with the failed login if the writer is idle
+        auditService.publish(AuditEventType.TOKEN_REJECTED, null, "batch-neighbour", "test");
+        assertThrows(AuthenticationException.class, () -> userService.verify(request));
+
+        assertEquals(1, awaitAuditRows("x".repeat(255), AuditEventType.LOGIN_FAILURE, 1));
+        assertEquals(1, awaitAuditRows("batch-neighbour", AuditEventType.TOKEN_REJECTED, 1));
+    }
+
+    @Test
+    void ringBufferRejectsOffersWhenFullAndWrapsAroundAfterDraining() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        List<AuditEvent> drained = new ArrayList<>();
+        int next = 0;
+        for (int lap = 0; lap < 3; lap++) {
+            while (buffer.offer(event(next))) {
+                next++;
+            }
+            assertEquals(4, buffer.size());
+            // Drain part of a lap so offers resume from the middle of the array
+            assertEquals(3, buffer.drainTo(drained, 3));
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+
+        assertEquals(next, drained.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals("event " + i, drained.get(i).detail());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void dropPolicyCountsEventsThatDoNotFit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Never started, so nothing drains the four slots
+        AuditService service = new AuditService(batch -> { }, registry, 4, AuditOverflowPolicy.DROP, 256,
+                Duration.ofMillis(50), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 10; i++) {
+            service.publish(AuditEventType.TOKEN_REJECTED, null, "dropped-user", "test " + i);
+        }
+
+        assertEquals(4, registry.counter("audit.events.published").count());
+        assertEquals(6, registry.counter("audit.events.dropped").count());
+        assertEquals(4, registry.get("audit.buffer.size").gauge().value());
+    }
+
+    @Test
+    void blockPolicyWaitsForSpaceWithoutLosingEvents() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        List<AuditEvent> written = new CopyOnWriteArrayList<>();
+        AuditService service = new AuditService(written::addAll, registry, 2, AuditOverflowPolicy.BLOCK, 1,
+                Duration.ofMillis(1), Duration.ofSeconds(30));
+        service.start();
+
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    service.publish(AuditEventType.TOKEN_REJECTED, null, "blocked-user", "test " + i);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        service.stop();
+
+        assertEquals(1000, written.size());
+        assertEquals(1000, registry.counter("audit.events.published").count());
+        assertEquals(0, registry.counter("audit.events.dropped").count());
+    }
+
+    @Test
+    void blockPolicyDropsOnceTheWriterHasStopped() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditService service = new AuditService(batch -> { }, registry, 2, AuditOverflowPolicy.BLOCK, 1,
+                Duration.ofMillis(1), Duration.ofSeconds(30));
+        service.start();
+        service.stop();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 5; i++) {
+                service.publish(AuditEventType.TOKEN_REJECTED, null, "stopped-user", "test " + i);
+            }
+        });
+
+        assertEquals(2, registry.counter("audit.events.published").count());
+        assertEquals(3, registry.counter("audit.events.dropped").count());
+    }
+
+    @Test
+    void blockPolicyGivesUpAfterTheBlockTimeout() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        AuditService service = new AuditService(batch -> release.await(), registry, 2, AuditOverflowPolicy.BLOCK, 1,
+                Duration.ofMillis(1), Duration.ofMillis(100));
+        service.start();
+
+        try {
+            // The stuck writer holds one event and the buffer two, so the rest time out
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 10; i++) {
+                    service.publish(AuditEventType.TOKEN_REJECTED, null, "stuck-user", "test " + i);
+                }
+            });
+            assertTrue(registry.counter("audit.events.dropped").count() >= 7);
+        } finally {
+            release.countDown();
+            service.stop();
+        }
+    }
+
+    @Test
+    void fileWriterRotatesToNumberedFilesAndKeepsOnlyTheLimit(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("audit.log");
+        FileAuditWriter writer = new FileAuditWriter(new ObjectMapper(), log, 1, 2);
+
+        for (int i = 0; i < 4; i++) {
+            writer.write(List.of(event(i)));
+        }
+
+        assertFalse(Files.exists(log));
+        assertTrue(Files.readString(directory.resolve("audit.log.1")).contains("\"event 3\""));
+        assertTrue(Files.readString(directory.resolve("audit.log.2")).contains("\"event 2\""));
+        assertFalse(Files.exists(directory.resolve("audit.log.3")));
+    }
+
+    @Test
+    void fileWriterCountsTheSizeLimitInBytes(@TempDir Path directory) throws Exception {
+        Path log = directory.resolve("audit.log");
+        FileAuditWriter writer = new FileAuditWriter(new ObjectMapper(), log, 400, 2);
+
+        // Roughly 300 chars but 500 bytes of UTF-8, so only a byte count reaches the limit
+        writer.write(List.of(new AuditEvent(AuditEventType.UPDATE, null, "multibyte-user", "é".repeat(200), Instant.now())));
+
+        Path rotated = directory.resolve("audit.log.1");
+        assertFalse(Files.exists(log));
+        assertTrue(Files.readString(rotated).length() < 400);
+        assertTrue(Files.size(rotated) >= 400);
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(AuditEventType.TOKEN_REJECTED, null, "ring-user", "event " + i, Instant.now());
+    }
+
+    private int awaitAuditRows(String subject, AuditEventType type, int expected) throws InterruptedException {
+        int rows = 0;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Integer count = jdbcTemplate.queryForObject(
+                    "select count(*) from audit_events where subject = ? and type = ?",
+                    Integer.class, subject, type.name());
+            rows = count == null ? 0 : count;
+            if (rows >= expected) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,42 @@
+package com.blueocn.TokenVerifier;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Supplies the HMAC key a token was signed with. The key id ({@code kid} header)
+ * is passed through so rotating sources can keep several keys at once; it is
+ * {@code null} for tokens that carry none.
+ * <p>
+ * Called on every verification, possibly concurrently, so implementations must be
+ * thread-safe and should not block.
+ */
+@FunctionalInterface
+public interface KeySource {
+
+    SecretKey keyFor(String keyId);
+
+    /**
+     * A single key used for every token, whatever its key id.
+     */
+    static KeySource of(SecretKey key) {
+        return keyId -> key;
+    }
+
+    /**
+     * A single key given as Base64, in the same format as the API's {@code jwt.secret}.
+     */
+    static KeySource fromBase64(String base64Secret) {
+        return of(new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256"));
+    }
+
+    /**
+     * Keys looked up by key id, for rotation. Tokens without a key id use {@code defaultKey}.
+     */
+    static KeySource byKeyId(Map<String, SecretKey> keys, SecretKey defaultKey) {
+        Map<String, SecretKey> snapshot = Map.copyOf(keys);
+        return keyId -> keyId == null ? defaultKey : snapshot.get(keyId);
+    }
+}
@@ -0,0 +1,111 @@
+package com.blueocn.TokenVerifier;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Verifies tokens issued by the User Management API: HMAC signature, expiry, subject
+ * and role list. Instances are immutable and thread-safe; build one per key source
+ * and share it.
+ */
+public final class TokenVerifier {
+
+    private final JwtParser parser;
+    private final String rolesClaim;
+
+    private TokenVerifier(Builder builder) {
+        Locator<Key> keyLocator = header -> {
+            String keyId = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+            Key key = builder.keySource.keyFor(keyId);
+            if (key == null) {
+                throw new SignatureException("No verification key for key id " + keyId);
+            }
+            return key;
+        };
+        Clock clock = builder.clock;
+        this.parser = Jwts.parser()
+                .keyLocator(keyLocator)
+                .clock(() -> Date.from(clock.instant()))
+                .clockSkewSeconds(builder.allowedClockSkew.toSeconds())
+                .build();
+        this.rolesClaim = builder.rolesClaim;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public VerificationResult verify(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String subject = claims.getSubject();
+            List<?> rawRoles = claims.get(rolesClaim, List.class);
+            if (subject == null || claims.getExpiration() == null || rawRoles == null) {
+                return VerificationResult.rejected(VerificationResult.INVALID);
+            }
+            List<String> roles = rawRoles.stream().map(String::valueOf).toList();
+            return VerificationResult.valid(subject, roles, claims.getExpiration().toInstant());
+        } catch (ExpiredJwtException e) {
+            return VerificationResult.rejected(VerificationResult.EXPIRED);
+        } catch (MalformedJwtException | IllegalArgumentException e) {
+            return VerificationResult.rejected(VerificationResult.MALFORMED);
+        } catch (SignatureException e) {
+            return VerificationResult.rejected(VerificationResult.INVALID_SIGNATURE);
+        } catch (JwtException e) {
+            return VerificationResult.rejected(VerificationResult.INVALID);
+        }
+    }
+
+    public static final class Builder {
+
+        private KeySource keySource;
+        private String rolesClaim = "roles";
+        private Clock clock = Clock.systemUTC();
+        private Duration allowedClockSkew = Duration.ZERO;
+
+        private Builder() {
+        }
+
+        public Builder keySource(KeySource keySource) {
+            this.keySource = keySource;
+            return this;
+        }
+
+        public Builder rolesClaim(String rolesClaim) {
+            this.rolesClaim = rolesClaim;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder allowedClockSkew(Duration allowedClockSkew) {
+            this.allowedClockSkew = allowedClockSkew;
+            return this;
+        }
+
+        public TokenVerifier build() {
+            Objects.requireNonNull(keySource, "keySource is required");
+            Objects.requireNonNull(rolesClaim, "rolesClaim is required");
+            Objects.requireNonNull(clock, "clock is required");
+            Objects.requireNonNull(allowedClockSkew, "allowedClockSkew is required");
+            return new TokenVerifier(this);
+        }
+    }
+}
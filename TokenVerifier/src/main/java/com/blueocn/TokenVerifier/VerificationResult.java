@@ -0,0 +1,28 @@
+package com.blueocn.TokenVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of verifying one token. A valid token carries its subject, roles and expiry;
+ * a rejected one only carries the {@code rejection} reason.
+ */
+public record VerificationResult(String subject, List<String> roles, Instant expiresAt, String rejection) {
+
+    public static final String EXPIRED = "expired";
+    public static final String MALFORMED = "malformed";
+    public static final String INVALID_SIGNATURE = "invalid_signature";
+    public static final String INVALID = "invalid";
+
+    public static VerificationResult valid(String subject, List<String> roles, Instant expiresAt) {
+        return new VerificationResult(subject, roles, expiresAt, null);
+    }
+
+    public static VerificationResult rejected(String rejection) {
+        return new VerificationResult(null, null, null, rejection);
+    }
+
+    public boolean isValid() {
+        return rejection == null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.blueocn.TokenVerifier;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plain-Java harness: no Spring context, only the verifier and jjwt.
+ */
+class TokenVerifierTests {
+
+    private static final Instant NOW = Instant.parse("2025-06-24T20:00:00Z");
+
+    private final SecretKey key = Jwts.SIG.HS256.key().build();
+    private final TokenVerifier verifier = TokenVerifier.builder()
+            .keySource(KeySource.of(key))
+            .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+            .build();
+
+    @Test
+    void acceptsTokenMintedLikeTheApi() {
+        VerificationResult result = verifier.verify(mint(key, null, NOW.plusSeconds(60)));
+
+        assertTrue(result.isValid());
+        assertEquals("user1", result.subject());
+        assertEquals(List.of("ROLE_USER"), result.roles());
+        assertEquals(NOW.plusSeconds(60), result.expiresAt());
+    }
+
+    @Test
+    void reportsWhyTokensAreRejected() {
+        SecretKey otherKey = Jwts.SIG.HS256.key().build();
+
+        assertEquals(VerificationResult.EXPIRED, verifier.verify(mint(key, null, NOW.minusSeconds(1))).rejection());
+        assertEquals(VerificationResult.INVALID_SIGNATURE, verifier.verify(mint(otherKey, null, NOW.plusSeconds(60))).rejection());
+        assertEquals(VerificationResult.MALFORMED, verifier.verify("not-a-jwt").rejection());
+        assertEquals(VerificationResult.MALFORMED, verifier.verify("").rejection());
+    }
+
+    @Test
+    void allowedClockSkewAcceptsRecentlyExpiredTokens() {
+        TokenVerifier lenient = TokenVerifier.builder()
+                .keySource(KeySource.of(key))
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .allowedClockSkew(Duration.ofSeconds(30))
+                .build();
+
+        assertTrue(lenient.verify(mint(key, null, NOW.minusSeconds(10))).isValid());
+    }
+
+    @Test
+    void keySourceResolvesRotatedKeysByKeyId() {
+        SecretKey previous = Jwts.SIG.HS256.key().build();
+        TokenVerifier rotating = TokenVerifier.builder()
+                .keySource(KeySource.byKeyId(Map.of("2024", previous, "2025", key), key))
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .build();
+
+        assertTrue(rotating.verify(mint(previous, "2024", NOW.plusSeconds(60))).isValid());
+        assertTrue(rotating.verify(mint(key, null, NOW.plusSeconds(60))).isValid());
+        assertEquals(VerificationResult.INVALID_SIGNATURE,
+                rotating.verify(mint(previous, "unknown", NOW.plusSeconds(60))).rejection());
+    }
+
+    @Test
+    void base64KeySourceMatchesTheApiSecretFormat() {
+        TokenVerifier fromSecret = TokenVerifier.builder()
+                .keySource(KeySource.fromBase64(Base64.getEncoder().encodeToString(key.getEncoded())))
+                .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                .build();
+
+        assertTrue(fromSecret.verify(mint(key, null, NOW.plusSeconds(60))).isValid());
+    }
+
+    private static String mint(SecretKey signingKey, String keyId, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .claims().add("roles", List.of("ROLE_USER"))
+                .subject("user1")
+                .issuedAt(Date.from(NOW.minusSeconds(1)))
+                .expiration(Date.from(expiresAt))
+                .and()
+                .signWith(signingKey, Jwts.SIG.HS256)
+                .compact();
+    }
+}